@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Mide el tiempo desde el arranque de la aplicación hasta el primer GET /clientes/{id} exitoso.
+#
+# Uso:
+#   scripts/benchmark-arranque.sh [ID_CLIENTE] -- <comando para arrancar la aplicación>
+#
+# Ejemplos:
+#   scripts/benchmark-arranque.sh 1 -- java -jar target/clientePersona-0.0.1-SNAPSHOT.jar
+#   scripts/benchmark-arranque.sh 1 -- docker run --rm -p 8080:8080 cliente-persona:1.0
+#
+# Variables de entorno:
+#   URL_BASE      URL de la aplicación (por defecto http://localhost:8080)
+#   REPETICIONES  Número de arranques a medir (por defecto 5)
+#   TIEMPO_MAXIMO Segundos máximos de espera por arranque (por defecto 120)
+set -euo pipefail
+
+ID_CLIENTE="${1:-1}"
+shift || true
+if [[ "${1:-}" == "--" ]]; then
+    shift
+fi
+if [[ $# -eq 0 ]]; then
+    echo "Falta el comando para arrancar la aplicación" >&2
+    exit 1
+fi
+
+URL_BASE="${URL_BASE:-http://localhost:8080}"
+REPETICIONES="${REPETICIONES:-5}"
+TIEMPO_MAXIMO="${TIEMPO_MAXIMO:-120}"
+
+for ((i = 1; i <= REPETICIONES; i++)); do
+    inicio=$(date +%s%N)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+
+    listo=false
+    while (( ($(date +%s%N) - inicio) / 1000000000 < TIEMPO_MAXIMO )); do
+        if [[ "$(curl -s -o /dev/null -w '%{http_code}' "${URL_BASE}/clientes/${ID_CLIENTE}")" == "200" ]]; then
+            listo=true
+            break
+        fi
+        sleep 0.05
+    done
+    fin=$(date +%s%N)
+
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+
+    if [[ "$listo" == true ]]; then
+        echo "Arranque ${i}: $(( (fin - inicio) / 1000000 )) ms hasta el primer GET /clientes/${ID_CLIENTE} exitoso"
+    else
+        echo "Arranque ${i}: sin respuesta exitosa en ${TIEMPO_MAXIMO} s" >&2
+        exit 1
+    fi
+done
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compara el ejecutable nativo con el jar de la JVM: tiempo de arranque, RSS y throughput estable
+# de GET /clientes/{id}.
+#
+# Requisitos: MySQL levantado (docker-compose up db), la suite de pruebas en verde sobre la JVM y
+# ambos artefactos construidos:
+#   mvn clean package                          -> target/clientePersona-0.0.1-SNAPSHOT.jar
+#   mvn -Pnative -DskipTests native:compile    -> target/clientePersona
+#
+# Uso:
+#   scripts/comparar-nativo.sh [ID_CLIENTE]
+#
+# Variables de entorno:
+#   URL_BASE     URL de la aplicación (por defecto http://localhost:8080)
+#   DURACION     Segundos de medición de throughput (por defecto 30)
+#   CONCURRENCIA Solicitudes concurrentes durante la medición (por defecto 16)
+set -euo pipefail
+
+ID_CLIENTE="${1:-1}"
+URL_BASE="${URL_BASE:-http://localhost:8080}"
+DURACION="${DURACION:-30}"
+CONCURRENCIA="${CONCURRENCIA:-16}"
+URL="${URL_BASE}/clientes/${ID_CLIENTE}"
+
+medir() {
+    local nombre="$1"
+    shift
+    local inicio fin pid rss solicitudes
+    inicio=$(date +%s%N)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    until [[ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" == "200" ]]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "${nombre}: la aplicación terminó antes de responder" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    fin=$(date +%s%N)
+
+    # Calentamiento antes de medir el estado estable
+    seq 2000 | xargs -P "$CONCURRENCIA" -I{} curl -s -o /dev/null "$URL"
+    solicitudes=$(seq "$CONCURRENCIA" | xargs -P "$CONCURRENCIA" -I{} bash -c '
+        fin=$((SECONDS + '"$DURACION"')); n=0
+        while (( SECONDS < fin )); do curl -s -o /dev/null "'"$URL"'"; n=$((n + 1)); done
+        echo $n' | awk '{ total += $1 } END { print total }')
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+
+    printf '%-6s arranque=%6d ms  rss=%7d KB  throughput=%8.1f req/s\n' \
+        "$nombre" $(( (fin - inicio) / 1000000 )) "$rss" "$(echo "$solicitudes / $DURACION" | bc -l)"
+}
+
+medir "JVM" java -jar target/clientePersona-0.0.1-SNAPSHOT.jar
+medir "Nativo" target/clientePersona
@@ -0,0 +1,47 @@
+package com.example.clientePersona.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuración de negociación de contenido para las respuestas de la API.
+ * Registra convertidores binarios (CBOR y Smile) que se seleccionan cuando el cliente los solicita
+ * mediante la cabecera {@code Accept}; JSON sigue siendo el formato por defecto.
+ * Spring Boot sustituye con estos beans a los convertidores CBOR/Smile por defecto, que se ubican
+ * después del convertidor JSON, por lo que {@code Accept: *}{@code /*} sigue respondiendo en JSON.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    /**
+     * Media type del formato JSON columnar para listados de clientes.
+     */
+    public static final String APPLICATION_CLIENTES_COLUMNAR_JSON = "application/vnd.clientes.columnar+json";
+
+    /**
+     * Convertidor para {@code application/cbor}, configurado con los mismos ajustes de Jackson que JSON.
+     *
+     * @param builder Builder de ObjectMapper configurado por Spring Boot.
+     * @return El convertidor CBOR.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Convertidor para {@code application/x-jackson-smile}, configurado con los mismos ajustes de Jackson que JSON.
+     *
+     * @param builder Builder de ObjectMapper configurado por Spring Boot.
+     * @return El convertidor Smile.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
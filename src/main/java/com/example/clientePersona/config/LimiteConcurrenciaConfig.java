@@ -0,0 +1,72 @@
+package com.example.clientePersona.config;
+
+import com.example.clientePersona.filter.LimitadorConcurrencia;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los limitadores de concurrencia adaptativos de escrituras y lecturas.
+ * Publica como métricas el límite actual, las solicitudes en vuelo y los rechazos de cada limitador.
+ */
+@Configuration
+public class LimiteConcurrenciaConfig {
+
+    /**
+     * Limitador para las solicitudes de escritura, dominadas por el coste de BCrypt.
+     */
+    @Bean
+    public LimitadorConcurrencia limitadorEscrituras(MeterRegistry meterRegistry,
+                                                     @Value("${clientes.concurrencia.escrituras.limite-inicial:8}") int limiteInicial,
+                                                     @Value("${clientes.concurrencia.escrituras.limite-minimo:1}") int limiteMinimo,
+                                                     @Value("${clientes.concurrencia.escrituras.limite-maximo:64}") int limiteMaximo,
+                                                     @Value("${clientes.concurrencia.escrituras.latencia-objetivo:500ms}") Duration latenciaObjetivo) {
+        return registrarMetricas(meterRegistry, "escritura",
+                new LimitadorConcurrencia(limiteInicial, limiteMinimo, limiteMaximo, latenciaObjetivo.toNanos()));
+    }
+
+    /**
+     * Limitador para las solicitudes de lectura.
+     */
+    @Bean
+    public LimitadorConcurrencia limitadorLecturas(MeterRegistry meterRegistry,
+                                                   @Value("${clientes.concurrencia.lecturas.limite-inicial:50}") int limiteInicial,
+                                                   @Value("${clientes.concurrencia.lecturas.limite-minimo:5}") int limiteMinimo,
+                                                   @Value("${clientes.concurrencia.lecturas.limite-maximo:400}") int limiteMaximo,
+                                                   @Value("${clientes.concurrencia.lecturas.latencia-objetivo:100ms}") Duration latenciaObjetivo) {
+        return registrarMetricas(meterRegistry, "lectura",
+                new LimitadorConcurrencia(limiteInicial, limiteMinimo, limiteMaximo, latenciaObjetivo.toNanos()));
+    }
+
+    /**
+     * Limitador para el listado completo de clientes, cuya latencia crece con la tabla y reduciría el límite
+     * de las lecturas puntuales si compartieran limitador.
+     */
+    @Bean
+    public LimitadorConcurrencia limitadorListados(MeterRegistry meterRegistry,
+                                                   @Value("${clientes.concurrencia.listados.limite-inicial:4}") int limiteInicial,
+                                                   @Value("${clientes.concurrencia.listados.limite-minimo:1}") int limiteMinimo,
+                                                   @Value("${clientes.concurrencia.listados.limite-maximo:16}") int limiteMaximo,
+                                                   @Value("${clientes.concurrencia.listados.latencia-objetivo:2s}") Duration latenciaObjetivo) {
+        return registrarMetricas(meterRegistry, "listado",
+                new LimitadorConcurrencia(limiteInicial, limiteMinimo, limiteMaximo, latenciaObjetivo.toNanos()));
+    }
+
+    private LimitadorConcurrencia registrarMetricas(MeterRegistry meterRegistry, String tipo, LimitadorConcurrencia limitador) {
+        Gauge.builder("clientes.concurrencia.limite", limitador, LimitadorConcurrencia::getLimite)
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+        Gauge.builder("clientes.concurrencia.en_vuelo", limitador, LimitadorConcurrencia::getEnVuelo)
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+        FunctionCounter.builder("clientes.concurrencia.rechazos", limitador, LimitadorConcurrencia::getRechazos)
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+        return limitador;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.clientePersona.config;
+
+import com.example.common.dto.request.ClienteRequestDto;
+import com.example.common.dto.response.ClienteResponseDto;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Info;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Metadatos de alcanzabilidad para la compilación nativa con GraalVM (perfil {@code native}).
+ * Spring AOT infiere la mayoría de los hints a partir de los beans; aquí se registran explícitamente
+ * las entidades JPA, los DTO que se serializan con Jackson (incluidos sus accesores generados por Lombok)
+ * y los modelos OpenAPI que construye {@link OpenApiConfig}. Las entidades y los DTO propios se descubren
+ * recorriendo sus paquetes durante la compilación AOT, de modo que las clases nuevas quedan cubiertas sin
+ * mantener una lista a mano.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ClientePersonaRuntimeHints.class)
+public class NativeHintsConfig {
+
+    private static final String PAQUETE_BASE = "com.example.clientePersona";
+
+    static class ClientePersonaRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entidad : clasesDe(PAQUETE_BASE + ".entity", classLoader)) {
+                hints.reflection().registerType(entidad, MemberCategory.values());
+            }
+            for (String paquete : List.of(PAQUETE_BASE + ".request", PAQUETE_BASE + ".response")) {
+                bindingRegistrar.registerReflectionHints(hints.reflection(),
+                        clasesDe(paquete, classLoader).toArray(Class<?>[]::new));
+            }
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    ClienteRequestDto.class, ClienteResponseDto.class, OpenAPI.class, Info.class);
+        }
+
+        /**
+         * Clases de nivel superior (incluidos enums y clases abstractas) de un paquete y sus subpaquetes.
+         */
+        private static List<Class<?>> clasesDe(String paquete, ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider escaner = new ClassPathScanningCandidateComponentProvider(false) {
+                @Override
+                protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                    return beanDefinition.getMetadata().isIndependent() && !beanDefinition.getMetadata().isInterface();
+                }
+            };
+            escaner.addIncludeFilter((lector, fabrica) -> true);
+            escaner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            return escaner.findCandidateComponents(paquete).stream()
+                    .<Class<?>>map(definicion -> ClassUtils.resolveClassName(definicion.getBeanClassName(), classLoader))
+                    .toList();
+        }
+    }
+}
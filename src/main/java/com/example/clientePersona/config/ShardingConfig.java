@@ -0,0 +1,173 @@
+package com.example.clientePersona.config;
+
+import com.example.clientePersona.sharding.ShardRouter;
+import com.example.clientePersona.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración del sharding de clientes.
+ * Cuando se declaran shards en {@code clientes.sharding.shards}, sustituye el datasource de
+ * {@code spring.datasource} por un datasource enrutado: cada shard se migra con Flyway al arrancar y sus
+ * columnas autoincrementales se configuran para generar solo valores de su propia serie
+ * ({@code shard + 1 + k * MAXIMO_SHARDS}), de modo que los IDs no colisionan entre shards y codifican su origen.
+ * Si la base ya tenía clientes al habilitar el sharding, sus IDs (generados de uno en uno) ocupan valores de las
+ * series de todos los shards: el mayor de ellos se registra una única vez y ningún shard genera IDs hasta él.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    /**
+     * Columnas autoincrementales cuyas series se reparten entre shards.
+     */
+    private static final Map<String, String> IDENTIDADES = Map.of("personas", "id", "cambios_clientes", "secuencia");
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "clientes.sharding", name = "shards[0].url")
+    public DataSource dataSource(ShardingProperties shardingProperties, ShardRouter shardRouter) {
+        List<ShardingProperties.Shard> shards = shardingProperties.getShards();
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            DataSource dataSource = crearDataSource(shard, shards.get(shard));
+            migrar(dataSource);
+            dataSources.add(dataSource);
+        }
+
+        long ultimoIdAnterior = registrarIdsAnteriores(dataSources);
+        shardRouter.registrarIdsAnteriores(ultimoIdAnterior);
+        Map<Object, Object> destinos = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            DataSource dataSource = dataSources.get(shard);
+            if (esMySql(shards.get(shard))) {
+                reservarIdsAnteriores(dataSource, ultimoIdAnterior);
+            } else {
+                configurarIdentidades(dataSource, shard, ultimoIdAnterior);
+            }
+            destinos.put(shard, dataSource);
+        }
+
+        ShardRoutingDataSource enrutado = new ShardRoutingDataSource();
+        enrutado.setTargetDataSources(destinos);
+        enrutado.setDefaultTargetDataSource(destinos.get(0));
+        enrutado.afterPropertiesSet();
+        logger.info("Sharding de clientes habilitado con {} shards", shards.size());
+        return new LazyConnectionDataSourceProxy(enrutado);
+    }
+
+    /**
+     * Aplica las migraciones a un shard. Igual que {@code spring.flyway}, una base anterior a Flyway (solo con la
+     * tabla {@code personas}) se registra en la versión 1 y recibe las migraciones posteriores.
+     */
+    static void migrar(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private DataSource crearDataSource(int shard, ShardingProperties.Shard configuracion) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + shard);
+        dataSource.setJdbcUrl(configuracion.getUrl());
+        dataSource.setUsername(configuracion.getUsername());
+        dataSource.setPassword(configuracion.getPassword());
+        if (esMySql(configuracion)) {
+            // MySQL asigna a cada AUTO_INCREMENT el siguiente valor de la serie aunque se inserten IDs de otros shards.
+            dataSource.setConnectionInitSql("SET SESSION auto_increment_increment = " + ShardRouter.MAXIMO_SHARDS
+                    + ", auto_increment_offset = " + (shard + 1));
+        }
+        return dataSource;
+    }
+
+    /**
+     * Devuelve el mayor ID de cliente anterior al sharding. La primera vez que arranca con sharding lo calcula
+     * sobre las tablas caliente y de archivo de todos los shards y lo guarda en el shard 0; en los arranques
+     * siguientes (incluso con más shards) usa el valor guardado, porque los IDs nuevos ya siguen las series.
+     */
+    private long registrarIdsAnteriores(List<DataSource> dataSources) {
+        JdbcTemplate principal = new JdbcTemplate(dataSources.get(0));
+        List<Long> registrado = principal.queryForList("SELECT ultimo_id FROM ids_anteriores_sharding WHERE id = 1", Long.class);
+        if (!registrado.isEmpty()) {
+            return registrado.get(0);
+        }
+        long ultimoId = 0;
+        for (DataSource dataSource : dataSources) {
+            ultimoId = Math.max(ultimoId, maximoIdCliente(new JdbcTemplate(dataSource)));
+        }
+        try {
+            principal.update("INSERT INTO ids_anteriores_sharding (id, ultimo_id) VALUES (1, ?)", ultimoId);
+            logger.info("IDs de clientes anteriores al sharding: hasta {}", ultimoId);
+            return ultimoId;
+        } catch (DuplicateKeyException e) {
+            // Otra instancia lo registró a la vez.
+            return principal.queryForObject("SELECT ultimo_id FROM ids_anteriores_sharding WHERE id = 1", Long.class);
+        }
+    }
+
+    /**
+     * Adelanta el AUTO_INCREMENT de clientes de un shard de MySQL que aún no ha generado IDs por encima de los
+     * anteriores al sharding (un shard nuevo, o el que ya tenía los datos).
+     */
+    private void reservarIdsAnteriores(DataSource dataSource, long ultimoIdAnterior) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if (maximoIdCliente(jdbcTemplate) < ultimoIdAnterior) {
+            jdbcTemplate.execute("ALTER TABLE personas AUTO_INCREMENT = " + (ultimoIdAnterior + 1));
+        }
+    }
+
+    private static long maximoIdCliente(JdbcTemplate jdbcTemplate) {
+        long maximo = 0;
+        for (String tabla : List.of("personas", "personas_archivo")) {
+            Long valor = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+            maximo = Math.max(maximo, valor == null ? 0 : valor);
+        }
+        return maximo;
+    }
+
+    /**
+     * Ajusta las columnas de identidad de las bases que no admiten {@code auto_increment_offset} (H2 en las
+     * pruebas locales) para que generen la serie del shard a partir del mayor valor existente, y los clientes
+     * por encima de los IDs anteriores al sharding.
+     */
+    private void configurarIdentidades(DataSource dataSource, int shard, long ultimoIdAnterior) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        IDENTIDADES.forEach((tabla, columna) -> {
+            Long maximo = jdbcTemplate.queryForObject("SELECT MAX(" + columna + ") FROM " + tabla, Long.class);
+            long base = maximo == null ? 0 : maximo;
+            if (tabla.equals("personas")) {
+                base = Math.max(maximoIdCliente(jdbcTemplate), ultimoIdAnterior);
+            }
+            long siguiente = base - Math.floorMod(base - 1 - shard, ShardRouter.MAXIMO_SHARDS) + ShardRouter.MAXIMO_SHARDS;
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN " + columna
+                    + " SET INCREMENT BY " + ShardRouter.MAXIMO_SHARDS);
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN " + columna + " RESTART WITH " + siguiente);
+        });
+    }
+
+    private static boolean esMySql(ShardingProperties.Shard configuracion) {
+        return configuracion.getUrl().startsWith("jdbc:mysql:");
+    }
+}
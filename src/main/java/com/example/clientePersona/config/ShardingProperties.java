@@ -0,0 +1,34 @@
+package com.example.clientePersona.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propiedades de sharding de clientes ({@code clientes.sharding}).
+ * Si no se configura ningún shard, la aplicación usa el datasource único de {@code spring.datasource}.
+ */
+@Data
+@ConfigurationProperties(prefix = "clientes.sharding")
+public class ShardingProperties {
+
+    /**
+     * Bases de datos entre las que se reparten los clientes; el índice en la lista es el número de shard.
+     * Solo se pueden agregar shards al final de la lista.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Número de clientes que el rebalanceo mueve en cada transacción.
+     */
+    private int tamanoLoteRebalanceo = 500;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.clientePersona.controller;
 
-import com.example.clientePersona.exception.IdentificacionDuplicadaException;
-import com.example.clientePersona.exception.ResourceNotFoundException;
+import com.example.clientePersona.config.ContentNegotiationConfig;
+import com.example.clientePersona.response.CambioClienteResponse;
+import com.example.clientePersona.response.ClientesColumnarResponse;
+import com.example.clientePersona.response.EstadisticasClientesResponse;
+import com.example.clientePersona.response.ImportacionResponse;
 import com.example.clientePersona.service.ClienteService;
+import com.example.clientePersona.service.EstadisticasClientesService;
+import com.example.clientePersona.service.IdempotenciaService;
+import com.example.clientePersona.service.ImportacionClientesService;
+import com.example.clientePersona.service.RebalanceoShardsService;
 import com.example.common.dto.request.ClienteRequestDto;
 import com.example.common.dto.response.ClienteResponseDto;
 import jakarta.validation.Valid;
@@ -15,19 +22,33 @@ import java.util.List;
 /**
  * Controlador REST para manejar operaciones relacionadas con clientes.
  * Proporciona endpoints para crear, obtener, actualizar y eliminar clientes.
+ * Los errores no se capturan aquí: las excepciones de los servicios llegan a
+ * {@link com.example.clientePersona.exception.GlobalExceptionHandler}, que responde con problem details.
  */
 @RestController
 @RequestMapping("/clientes")
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final ImportacionClientesService importacionClientesService;
+    private final IdempotenciaService idempotenciaService;
+    private final EstadisticasClientesService estadisticasClientesService;
+    private final RebalanceoShardsService rebalanceoShardsService;
 
-    public ClienteController(ClienteService clienteService) {
+    public ClienteController(ClienteService clienteService, ImportacionClientesService importacionClientesService,
+                             IdempotenciaService idempotenciaService,
+                             EstadisticasClientesService estadisticasClientesService,
+                             RebalanceoShardsService rebalanceoShardsService) {
         this.clienteService = clienteService;
+        this.importacionClientesService = importacionClientesService;
+        this.idempotenciaService = idempotenciaService;
+        this.estadisticasClientesService = estadisticasClientesService;
+        this.rebalanceoShardsService = rebalanceoShardsService;
     }
 
     /**
      * Obtiene una lista de todos los clientes.
+     * Según la cabecera {@code Accept} la respuesta se serializa en JSON, CBOR o Smile.
      *
      * @return ResponseEntity con la lista de clientes y el estado HTTP OK.
      */
@@ -36,6 +57,45 @@ public class ClienteController {
         return ResponseEntity.ok(clienteService.getAllClientes());
     }
 
+    /**
+     * Obtiene una lista de todos los clientes en formato JSON columnar, donde los nombres de los campos
+     * se envían una sola vez. Se selecciona con {@code Accept: application/vnd.clientes.columnar+json}.
+     *
+     * @return ResponseEntity con el listado columnar de clientes y el estado HTTP OK.
+     */
+    @GetMapping(produces = ContentNegotiationConfig.APPLICATION_CLIENTES_COLUMNAR_JSON)
+    public ResponseEntity<ClientesColumnarResponse> getAllClientesColumnar() {
+        return ResponseEntity.ok(ClientesColumnarResponse.de(clienteService.getAllClientes()));
+    }
+
+    /**
+     * Obtiene los cambios de clientes posteriores a una secuencia, para sincronizaciones incrementales.
+     * Las eliminaciones se devuelven como tombstones. Con sharding, cada shard tiene su propio feed.
+     *
+     * @param since Secuencia a partir de la cual (sin incluirla) se devuelven los cambios.
+     * @param limit Número máximo de cambios a devolver.
+     * @param shard Shard cuyo feed se consulta; obligatorio con sharding.
+     * @return ResponseEntity con la lista de cambios y el estado HTTP OK. Si la secuencia o el shard no son
+     *         válidos, o falta el shard con sharding, se responde HTTP BAD REQUEST.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<CambioClienteResponse>> getCambiosClientes(@RequestParam(defaultValue = "0") long since,
+                                                                          @RequestParam(defaultValue = "100") int limit,
+                                                                          @RequestParam(required = false) Integer shard) {
+        return ResponseEntity.ok(clienteService.obtenerCambiosDesde(since, limit, shard));
+    }
+
+    /**
+     * Obtiene las estadísticas agregadas de los clientes (activos/inactivos, género y rangos de edad).
+     * Se sirven desde contadores en memoria, por lo que el coste no depende del tamaño de la tabla.
+     *
+     * @return ResponseEntity con las estadísticas y el estado HTTP OK.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<EstadisticasClientesResponse> getEstadisticas() {
+        return ResponseEntity.ok(estadisticasClientesService.obtenerEstadisticas());
+    }
+
     /**
      * Obtiene los detalles de un cliente específico por su ID.
      *
@@ -50,19 +110,26 @@ public class ClienteController {
 
     /**
      * Crea un nuevo cliente con los datos proporcionados.
+     * Si se envía la cabecera {@code Idempotency-Key}, los reintentos con la misma clave devuelven la respuesta
+     * original sin volver a crear el cliente; reutilizar la clave con otros datos se responde HTTP UNPROCESSABLE ENTITY.
      *
+     * @param idempotencyKey Clave de idempotencia opcional de la solicitud.
      * @param clienteRequestDto Datos del cliente a crear.
-     * @return ResponseEntity con un mensaje de éxito y el estado HTTP CREATED si la creación es exitosa,
-     *         o con un mensaje de error y el estado HTTP BAD REQUEST si hay una excepción.
+     * @return ResponseEntity con un mensaje de éxito y el estado HTTP CREATED. Si la identificación ya existe
+     *         o los datos no son válidos se responde HTTP BAD REQUEST.
      */
     @PostMapping
-    public ResponseEntity<String> createCliente(@Valid @RequestBody ClienteRequestDto clienteRequestDto) {
-        try {
-            ClienteResponseDto clienteResponseDto = clienteService.crearCliente(clienteRequestDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body("Cliente creado exitosamente con ID: " + clienteResponseDto.getClienteId());
-        } catch (IdentificacionDuplicadaException | IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    public ResponseEntity<String> createCliente(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                @Valid @RequestBody ClienteRequestDto clienteRequestDto) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return crearCliente(clienteRequestDto);
         }
+        return idempotenciaService.ejecutar(idempotencyKey, clienteRequestDto, () -> crearCliente(clienteRequestDto));
+    }
+
+    private ResponseEntity<String> crearCliente(ClienteRequestDto clienteRequestDto) {
+        ClienteResponseDto clienteResponseDto = clienteService.crearCliente(clienteRequestDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body("Cliente creado exitosamente con ID: " + clienteResponseDto.getClienteId());
     }
 
     /**
@@ -70,37 +137,62 @@ public class ClienteController {
      *
      * @param id ID del cliente a actualizar.
      * @param clienteRequestDto Datos actualizados del cliente.
-     * @return ResponseEntity con un mensaje de éxito y el estado HTTP OK si la actualización es exitosa,
-     *         o con un mensaje de error y el estado HTTP correspondiente si ocurre alguna excepción.
+     * @return ResponseEntity con un mensaje de éxito y el estado HTTP OK. Si el cliente no existe se responde
+     *         HTTP NOT FOUND, y si la identificación ya existe o los datos no son válidos, HTTP BAD REQUEST.
      */
     @PutMapping("/{id}")
     public ResponseEntity<String> updateCliente(@PathVariable Long id, @Valid @RequestBody ClienteRequestDto clienteRequestDto) {
-        try {
-            ClienteResponseDto clienteResponseDto = clienteService.editarCliente(id, clienteRequestDto);
-            return ResponseEntity.ok("Cliente actualizado exitosamente con ID: " + clienteResponseDto.getClienteId());
-        } catch (IdentificacionDuplicadaException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        }
+        ClienteResponseDto clienteResponseDto = clienteService.editarCliente(id, clienteRequestDto);
+        return ResponseEntity.ok("Cliente actualizado exitosamente con ID: " + clienteResponseDto.getClienteId());
     }
 
     /**
      * Elimina un cliente específico por su ID.
      *
      * @param id ID del cliente a eliminar.
-     * @return ResponseEntity con un mensaje de éxito y el estado HTTP NO CONTENT si la eliminación es exitosa,
-     *         o con un mensaje de error y el estado HTTP NOT FOUND si el cliente no existe.
+     * @return ResponseEntity con un mensaje de éxito y el estado HTTP NO CONTENT. Si el cliente no existe se
+     *         responde HTTP NOT FOUND.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteCliente(@PathVariable Long id) {
-        try {
-            clienteService.eliminarCliente(id);
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).body("Cliente eliminado exitosamente.");
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        }
+        clienteService.eliminarCliente(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).body("Cliente eliminado exitosamente.");
+    }
+
+    /**
+     * Inicia la importación masiva de clientes desde un archivo CSV del directorio de importaciones.
+     * Si el archivo ya se importó parcialmente, la importación continúa desde el último lote confirmado.
+     *
+     * @param archivo Nombre del archivo CSV a importar.
+     * @return ResponseEntity con el progreso inicial y el estado HTTP ACCEPTED. Si el archivo no es válido, no
+     *         existe o ya se está importando se responde HTTP BAD REQUEST, NOT FOUND o CONFLICT respectivamente.
+     */
+    @PostMapping("/importaciones")
+    public ResponseEntity<ImportacionResponse> importarClientes(@RequestParam String archivo) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importacionClientesService.iniciarImportacion(archivo));
+    }
+
+    /**
+     * Obtiene el progreso de la importación masiva de un archivo CSV.
+     *
+     * @param archivo Nombre del archivo CSV importado.
+     * @return ResponseEntity con el progreso de la importación y el estado HTTP OK. Si no hay ninguna
+     *         importación para el archivo se responde HTTP NOT FOUND.
+     */
+    @GetMapping("/importaciones/{archivo}")
+    public ResponseEntity<ImportacionResponse> getProgresoImportacion(@PathVariable String archivo) {
+        return ResponseEntity.ok(importacionClientesService.obtenerProgreso(archivo));
+    }
+
+    /**
+     * Inicia en segundo plano el rebalanceo de clientes entre shards, tras agregar shards a la configuración.
+     *
+     * @return ResponseEntity con el estado HTTP ACCEPTED. Si el sharding no está habilitado o ya hay un
+     *         rebalanceo en curso se responde HTTP CONFLICT.
+     */
+    @PostMapping("/shards/rebalanceo")
+    public ResponseEntity<Void> rebalancearShards() {
+        rebalanceoShardsService.iniciar();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
     }
 }
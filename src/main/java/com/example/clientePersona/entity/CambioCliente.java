@@ -0,0 +1,47 @@
+package com.example.clientePersona.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entidad que representa un cambio sobre un cliente (alta, modificación o eliminación).
+ * La clave primaria autoincremental actúa como secuencia monótona del feed de cambios,
+ * de modo que los consumidores pueden pedir únicamente los cambios posteriores a una secuencia dada.
+ * La secuencia se asigna al insertar, no al confirmar; por eso quien inserta cambios bloquea antes la fila de
+ * {@code cambios_clientes_bloqueo} (ver {@link com.example.clientePersona.repository.CambioClienteRepository#bloquearSecuencia()}),
+ * lo que hace que las secuencias se confirmen en el mismo orden en que se asignan.
+ */
+@Entity
+@Table(name = "cambios_clientes")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambioCliente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TipoCambio tipo;
+
+    @Column(name = "persona_id", nullable = false)
+    private Long personaId;
+
+    @Column(name = "cliente_id", nullable = false)
+    private String clienteId;
+
+    private String nombre;
+    private String identificacion;
+    private Boolean estado;
+
+    @Column(name = "fecha_cambio", nullable = false)
+    private Instant fechaCambio;
+}
@@ -3,6 +3,9 @@ package com.example.clientePersona.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Entidad que representa a un cliente en el sistema.
  * Hereda de la entidad {@link Persona} y se utiliza para gestionar los datos específicos de un cliente.
@@ -23,6 +26,9 @@ public class Cliente extends Persona {
     @Column(nullable = false)
     private Boolean estado;
 
+    @Column(name = "fecha_modificacion")
+    private Instant fechaModificacion;
+
     /**
      * Método de ciclo de vida de JPA que se ejecuta antes de persistir el cliente en la base de datos.
      * Genera un identificador único para el cliente si no está ya establecido.
@@ -32,15 +38,26 @@ public class Cliente extends Persona {
         if (this.clienteId == null) {
             this.clienteId = generateClienteId();
         }
+        this.fechaModificacion = Instant.now();
+    }
+
+    /**
+     * Método de ciclo de vida de JPA que se ejecuta antes de actualizar el cliente en la base de datos.
+     * Registra la fecha de la última modificación, usada para decidir cuándo archivar clientes inactivos.
+     */
+    @PreUpdate
+    public void preUpdate() {
+        this.fechaModificacion = Instant.now();
     }
 
     /**
      * Genera un identificador único para el cliente.
-     * El identificador es una cadena de 8 dígitos.
+     * El identificador es una cadena de 8 dígitos elegida al azar entre todos los valores posibles,
+     * lo que mantiene baja la probabilidad de colisión también en cargas masivas.
      *
      * @return El identificador único generado.
      */
-    private String generateClienteId() {
-        return String.format("%08d", (int)(Math.random() * 1000000));
+    public static String generateClienteId() {
+        return String.format("%08d", ThreadLocalRandom.current().nextInt(100_000_000));
     }
 }
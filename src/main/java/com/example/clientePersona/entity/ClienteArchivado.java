@@ -0,0 +1,48 @@
+package com.example.clientePersona.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entidad que representa a un cliente inactivo movido a la tabla de archivo.
+ * Conserva el mismo ID y clienteId que tenía en la tabla {@code personas}, de modo que puede volver
+ * a ella sin cambiar de identidad.
+ */
+@Entity
+@Table(name = "personas_archivo")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClienteArchivado {
+
+    @Id
+    private Long id;
+
+    private String nombre;
+    private String genero;
+    private int edad;
+    private String identificacion;
+    private String direccion;
+    private String telefono;
+
+    @Column(name = "cliente_id", unique = true, nullable = false)
+    private String clienteId;
+
+    @Column(name = "contraseña", nullable = false)
+    private String contrasena;
+
+    @Column(nullable = false)
+    private Boolean estado;
+
+    @Column(name = "fecha_modificacion")
+    private Instant fechaModificacion;
+
+    @Column(name = "fecha_archivo", nullable = false)
+    private Instant fechaArchivo;
+}
@@ -0,0 +1,10 @@
+package com.example.clientePersona.entity;
+
+/**
+ * Tipos de cambio que se registran en el feed de cambios de clientes.
+ */
+public enum TipoCambio {
+    CREADO,
+    MODIFICADO,
+    ELIMINADO
+}
@@ -0,0 +1,18 @@
+package com.example.clientePersona.exception;
+
+/**
+ * Excepción personalizada que se lanza cuando una {@code Idempotency-Key} se reutiliza con una solicitud distinta
+ * de la que la usó primero. {@link GlobalExceptionHandler} la traduce en 422 Unprocessable Entity.
+ * No captura la traza de la pila: el error lo provoca el cliente y basta con su mensaje.
+ */
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    /**
+     * Constructor que crea una nueva instancia de ClaveIdempotenciaReutilizadaException con un mensaje específico.
+     *
+     * @param message El mensaje de error que describe la causa de la excepción.
+     */
+    public ClaveIdempotenciaReutilizadaException(String message) {
+        super(message, null, false, false);
+    }
+}
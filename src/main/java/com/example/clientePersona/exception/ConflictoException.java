@@ -0,0 +1,18 @@
+package com.example.clientePersona.exception;
+
+/**
+ * Excepción personalizada que se lanza cuando una operación no puede ejecutarse en el estado actual,
+ * por ejemplo porque ya hay otra igual en curso. {@link GlobalExceptionHandler} la traduce en 409 Conflict.
+ * Como las demás excepciones de dominio, no captura la traza de la pila.
+ */
+public class ConflictoException extends RuntimeException {
+
+    /**
+     * Constructor que crea una nueva instancia de ConflictoException con un mensaje específico.
+     *
+     * @param message El mensaje de error que describe la causa de la excepción.
+     */
+    public ConflictoException(String message) {
+        super(message, null, false, false);
+    }
+}
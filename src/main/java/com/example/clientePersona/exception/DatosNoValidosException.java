@@ -0,0 +1,19 @@
+package com.example.clientePersona.exception;
+
+/**
+ * Excepción personalizada que se lanza cuando los datos de una solicitud no cumplen las reglas de negocio.
+ * {@link GlobalExceptionHandler} la traduce en 400 Bad Request y usa su mensaje como detalle, por lo que
+ * solo debe construirse con mensajes pensados para el cliente de la API. Como las demás excepciones de dominio,
+ * no captura la traza de la pila.
+ */
+public class DatosNoValidosException extends RuntimeException {
+
+    /**
+     * Constructor que crea una nueva instancia de DatosNoValidosException con un mensaje específico.
+     *
+     * @param message El mensaje de error que describe la causa de la excepción.
+     */
+    public DatosNoValidosException(String message) {
+        super(message, null, false, false);
+    }
+}
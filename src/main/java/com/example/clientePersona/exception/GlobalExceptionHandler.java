@@ -1,55 +1,117 @@
 package com.example.clientePersona.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Manejador global de excepciones para la aplicación.
- * Captura y maneja las excepciones comunes a nivel de aplicación y proporciona respuestas consistentes en caso de errores.
+ * Traduce las excepciones de dominio y de validación en respuestas {@code application/problem+json} (RFC 7807)
+ * con {@code type}, {@code title}, {@code status}, {@code detail} e {@code instance}, de modo que los
+ * controladores no necesitan capturarlas. Al extender {@link ResponseEntityExceptionHandler}, los errores propios
+ * de Spring MVC (parámetros mal formados, métodos no soportados...) también se responden como problem details,
+ * y Spring Boot no registra su manejador genérico, que respondería a las validaciones sin los campos con error.
  */
 @RestControllerAdvice
-public class GlobalExceptionHandler {
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    static final URI TIPO_DATOS_NO_VALIDOS = URI.create("urn:clientes:problema:datos-no-validos");
+    static final URI TIPO_IDENTIFICACION_DUPLICADA = URI.create("urn:clientes:problema:identificacion-duplicada");
+    static final URI TIPO_NO_ENCONTRADO = URI.create("urn:clientes:problema:no-encontrado");
+    static final URI TIPO_CONFLICTO = URI.create("urn:clientes:problema:conflicto");
+    static final URI TIPO_IDEMPOTENCIA = URI.create("urn:clientes:problema:clave-idempotencia-reutilizada");
 
     /**
      * Maneja las excepciones de validación de argumentos de método.
      * Captura errores de validación generados por el uso de anotaciones de validación en las solicitudes.
      *
      * @param ex La excepción de validación de argumentos de método.
-     * @return Un mapa de errores que contiene los nombres de los campos y los mensajes de error correspondientes.
+     * @return Problem details con los nombres de los campos y sus mensajes de error en la propiedad {@code errores}.
      */
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    @ResponseBody
-    public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException ex) {
+    @Override
+    protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers,
+                                                                  HttpStatusCode status, WebRequest request) {
         Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
-            String fieldName = ((org.springframework.validation.FieldError) error).getField();
-            String errorMessage = error.getDefaultMessage();
-            errors.put(fieldName, errorMessage);
-        });
-        return errors;
+        ex.getBindingResult().getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+        ProblemDetail problema = problema(HttpStatus.BAD_REQUEST, TIPO_DATOS_NO_VALIDOS, "Datos no válidos",
+                "La solicitud contiene campos no válidos.");
+        problema.setProperty("errores", errors);
+        return handleExceptionInternal(ex, problema, headers, status, request);
     }
 
     /**
      * Maneja las excepciones específicas de identificación duplicada.
-     * Captura excepciones de identificación duplicada y devuelve un mensaje de error específico.
      *
      * @param ex La excepción de identificación duplicada.
-     * @return Un mapa que contiene el mensaje de error de identificación duplicada.
+     * @return Problem details con estado 400 y el mensaje de la excepción.
      */
     @ExceptionHandler(IdentificacionDuplicadaException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    @ResponseBody
-    public Map<String, String> handleIdentificacionDuplicadaException(IdentificacionDuplicadaException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return error;
+    public ProblemDetail handleIdentificacionDuplicadaException(IdentificacionDuplicadaException ex) {
+        return problema(HttpStatus.BAD_REQUEST, TIPO_IDENTIFICACION_DUPLICADA, "Identificación duplicada", ex.getMessage());
+    }
+
+    /**
+     * Maneja las excepciones de recurso no encontrado.
+     *
+     * @param ex La excepción de recurso no encontrado.
+     * @return Problem details con estado 404 y el mensaje de la excepción.
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ProblemDetail handleResourceNotFoundException(ResourceNotFoundException ex) {
+        return problema(HttpStatus.NOT_FOUND, TIPO_NO_ENCONTRADO, "Recurso no encontrado", ex.getMessage());
+    }
+
+    /**
+     * Maneja los datos de entrada que no cumplen las reglas de negocio. Solo se traducen las
+     * {@link DatosNoValidosException}: un {@link IllegalArgumentException} cualquiera puede venir de una librería
+     * y su mensaje no debe llegar al cliente, así que termina como error interno.
+     *
+     * @param ex La excepción de datos no válidos.
+     * @return Problem details con estado 400 y el mensaje de la excepción.
+     */
+    @ExceptionHandler(DatosNoValidosException.class)
+    public ProblemDetail handleDatosNoValidosException(DatosNoValidosException ex) {
+        return problema(HttpStatus.BAD_REQUEST, TIPO_DATOS_NO_VALIDOS, "Datos no válidos", ex.getMessage());
+    }
+
+    /**
+     * Maneja las operaciones que entran en conflicto con el estado actual.
+     *
+     * @param ex La excepción de conflicto.
+     * @return Problem details con estado 409 y el mensaje de la excepción.
+     */
+    @ExceptionHandler(ConflictoException.class)
+    public ProblemDetail handleConflictoException(ConflictoException ex) {
+        return problema(HttpStatus.CONFLICT, TIPO_CONFLICTO, "Conflicto", ex.getMessage());
+    }
+
+    /**
+     * Maneja la reutilización de una {@code Idempotency-Key} con una solicitud distinta.
+     *
+     * @param ex La excepción de clave de idempotencia reutilizada.
+     * @return Problem details con estado 422 y el mensaje de la excepción.
+     */
+    @ExceptionHandler(ClaveIdempotenciaReutilizadaException.class)
+    public ProblemDetail handleClaveIdempotenciaReutilizadaException(ClaveIdempotenciaReutilizadaException ex) {
+        return problema(HttpStatus.UNPROCESSABLE_ENTITY, TIPO_IDEMPOTENCIA, "Clave de idempotencia reutilizada",
+                ex.getMessage());
+    }
+
+    private ProblemDetail problema(HttpStatus estado, URI tipo, String titulo, String detalle) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(estado, detalle);
+        problema.setType(tipo);
+        problema.setTitle(titulo);
+        return problema;
     }
 }
@@ -3,6 +3,7 @@ package com.example.clientePersona.exception;
 /**
  * Excepción personalizada que se lanza cuando se detecta una identificación duplicada.
  * Extiende RuntimeException para representar errores específicos relacionados con datos duplicados.
+ * Se crea sin traza de la pila, ya que los reintentos de altas la producen con frecuencia y solo interesa su mensaje.
  */
 public class IdentificacionDuplicadaException extends RuntimeException {
 
@@ -12,6 +13,6 @@ public class IdentificacionDuplicadaException extends RuntimeException {
      * @param message El mensaje de error que describe la causa de la excepción.
      */
     public IdentificacionDuplicadaException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -1,13 +1,11 @@
 package com.example.clientePersona.exception;
 
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
 /**
  * Excepción personalizada que se lanza cuando un recurso solicitado no se encuentra.
- * Extiende RuntimeException y se asocia con el estado HTTP 404 Not Found.
+ * {@link GlobalExceptionHandler} la traduce en una respuesta 404 Not Found.
+ * No captura la traza de la pila: es un resultado esperado (por ejemplo, consultas de clientes ya eliminados)
+ * y la traza nunca se registra ni se devuelve.
  */
-@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
 
     /**
@@ -16,6 +14,6 @@ public class ResourceNotFoundException extends RuntimeException {
      * @param message El mensaje de error que describe la causa de la excepción.
      */
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
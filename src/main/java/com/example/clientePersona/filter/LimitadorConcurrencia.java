@@ -0,0 +1,108 @@
+package com.example.clientePersona.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de concurrencia adaptativo basado en AIMD (incremento aditivo, reducción multiplicativa).
+ * Mientras la latencia observada se mantiene por debajo del objetivo, el límite crece en uno por cada
+ * "ventana" de solicitudes completadas; cuando una solicitud supera la latencia objetivo, el límite se
+ * reduce multiplicativamente, como máximo una vez por cada intervalo igual a la latencia objetivo.
+ * Todas las operaciones son libres de bloqueos.
+ */
+public class LimitadorConcurrencia {
+
+    private static final double FACTOR_REDUCCION = 0.9;
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaObjetivoNanos;
+
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final AtomicInteger limite;
+    private final AtomicInteger exitosDesdeIncremento = new AtomicInteger();
+    private final AtomicLong ultimaReduccion;
+    private final LongAdder rechazos = new LongAdder();
+
+    /**
+     * Crea un limitador de concurrencia adaptativo.
+     *
+     * @param limiteInicial Límite de solicitudes concurrentes al arrancar.
+     * @param limiteMinimo Límite mínimo al que puede reducirse.
+     * @param limiteMaximo Límite máximo al que puede crecer.
+     * @param latenciaObjetivoNanos Latencia a partir de la cual se considera que el servicio está saturado.
+     */
+    public LimitadorConcurrencia(int limiteInicial, int limiteMinimo, int limiteMaximo, long latenciaObjetivoNanos) {
+        if (limiteMinimo < 1 || limiteMinimo > limiteMaximo) {
+            throw new IllegalArgumentException("Los límites de concurrencia no son válidos.");
+        }
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaObjetivoNanos = latenciaObjetivoNanos;
+        this.limite = new AtomicInteger(Math.max(limiteMinimo, Math.min(limiteInicial, limiteMaximo)));
+        this.ultimaReduccion = new AtomicLong(System.nanoTime() - latenciaObjetivoNanos);
+    }
+
+    /**
+     * Intenta reservar un lugar para una solicitud.
+     *
+     * @return {@code true} si la solicitud puede ejecutarse; {@code false} si debe rechazarse.
+     */
+    public boolean intentarAdquirir() {
+        while (true) {
+            int actual = enVuelo.get();
+            if (actual >= limite.get()) {
+                rechazos.increment();
+                return false;
+            }
+            if (enVuelo.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar de una solicitud completada y ajusta el límite según su latencia.
+     *
+     * @param latenciaNanos Latencia observada de la solicitud.
+     */
+    public void liberar(long latenciaNanos) {
+        int enVueloAlTerminar = enVuelo.getAndDecrement();
+        if (latenciaNanos > latenciaObjetivoNanos) {
+            reducir();
+        } else if (enVueloAlTerminar * 2 >= limite.get()) {
+            // Solo se incrementa si el límite realmente se está usando; si no, crecería sin control.
+            incrementar();
+        }
+    }
+
+    private void incrementar() {
+        int actual = limite.get();
+        if (exitosDesdeIncremento.incrementAndGet() >= actual) {
+            exitosDesdeIncremento.set(0);
+            limite.compareAndSet(actual, Math.min(limiteMaximo, actual + 1));
+        }
+    }
+
+    private void reducir() {
+        long ahora = System.nanoTime();
+        long anterior = ultimaReduccion.get();
+        if (ahora - anterior >= latenciaObjetivoNanos && ultimaReduccion.compareAndSet(anterior, ahora)) {
+            limite.updateAndGet(l -> Math.max(limiteMinimo, (int) (l * FACTOR_REDUCCION)));
+            exitosDesdeIncremento.set(0);
+        }
+    }
+
+    public int getLimite() {
+        return limite.get();
+    }
+
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+
+    public long getRechazos() {
+        return rechazos.sum();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.clientePersona.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que aplica los limitadores de concurrencia adaptativos a los endpoints de {@code /clientes}.
+ * Las escrituras (POST, PUT, PATCH y DELETE) y las lecturas tienen límites independientes, de modo que un pico
+ * de escrituras costosas no degrada las lecturas. El listado completo ({@code GET /clientes}) tiene su propio
+ * límite, para que su latencia no reduzca el de las consultas puntuales. Las solicitudes que exceden el límite se rechazan de inmediato
+ * con HTTP 503 en lugar de encolarse en Tomcat.
+ */
+@Component
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    private static final String RUTA_CLIENTES = "/clientes";
+
+    private final LimitadorConcurrencia limitadorEscrituras;
+    private final LimitadorConcurrencia limitadorLecturas;
+    private final LimitadorConcurrencia limitadorListados;
+
+    public LimiteConcurrenciaFilter(@Qualifier("limitadorEscrituras") LimitadorConcurrencia limitadorEscrituras,
+                                    @Qualifier("limitadorLecturas") LimitadorConcurrencia limitadorLecturas,
+                                    @Qualifier("limitadorListados") LimitadorConcurrencia limitadorListados) {
+        this.limitadorEscrituras = limitadorEscrituras;
+        this.limitadorLecturas = limitadorLecturas;
+        this.limitadorListados = limitadorListados;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = ruta(request);
+        return !ruta.equals(RUTA_CLIENTES) && !ruta.startsWith(RUTA_CLIENTES + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimitadorConcurrencia limitador;
+        if (esEscritura(request)) {
+            limitador = limitadorEscrituras;
+        } else if (ruta(request).equals(RUTA_CLIENTES)) {
+            limitador = limitadorListados;
+        } else {
+            limitador = limitadorLecturas;
+        }
+        if (!limitador.intentarAdquirir()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limitador.liberar(System.nanoTime() - inicio);
+        }
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private boolean esEscritura(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return HttpMethod.POST.matches(metodo) || HttpMethod.PUT.matches(metodo)
+                || HttpMethod.PATCH.matches(metodo) || HttpMethod.DELETE.matches(metodo);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.clientePersona.repository;
+
+import com.example.clientePersona.entity.CambioCliente;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio de JPA para la entidad {@link CambioCliente}.
+ * Permite recorrer el feed de cambios de clientes a partir de una secuencia.
+ */
+@Repository
+public interface CambioClienteRepository extends JpaRepository<CambioCliente, Long> {
+
+    /**
+     * Obtiene los cambios posteriores a la secuencia indicada, ordenados por secuencia ascendente.
+     *
+     * @param secuencia Secuencia a partir de la cual (sin incluirla) se buscan los cambios.
+     * @param pageable Límite de resultados a devolver.
+     * @return Lista de cambios posteriores a la secuencia.
+     */
+    List<CambioCliente> findBySecuenciaGreaterThanOrderBySecuenciaAsc(Long secuencia, Pageable pageable);
+
+    /**
+     * Bloquea hasta el final de la transacción en curso la fila que serializa la asignación de secuencias.
+     * Debe llamarse antes de insertar cambios: mientras una transacción no se confirma, ninguna otra puede
+     * obtener una secuencia mayor, por lo que el feed nunca expone una secuencia con huecos que se llenen después.
+     *
+     * @return Identificador de la fila bloqueada.
+     */
+    @Query(value = "SELECT id FROM cambios_clientes_bloqueo WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Integer bloquearSecuencia();
+}
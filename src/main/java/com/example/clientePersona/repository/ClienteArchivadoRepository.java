@@ -0,0 +1,55 @@
+package com.example.clientePersona.repository;
+
+import com.example.clientePersona.entity.ClienteArchivado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio de JPA para la entidad {@link ClienteArchivado}.
+ * Solo se consulta cuando un cliente no se encuentra en la tabla caliente.
+ */
+@Repository
+public interface ClienteArchivadoRepository extends JpaRepository<ClienteArchivado, Long> {
+
+    /**
+     * Busca un cliente archivado por su clienteId.
+     *
+     * @param clienteId El clienteId del cliente a buscar.
+     * @return Un Optional que contiene el cliente archivado si se encuentra, o vacío si no se encuentra.
+     */
+    Optional<ClienteArchivado> findByClienteId(String clienteId);
+
+    /**
+     * Verifica si existe un cliente archivado con la identificación proporcionada.
+     *
+     * @param identificacion La identificación a verificar.
+     * @return {@code true} si existe un cliente archivado con la identificación dada, {@code false} en caso contrario.
+     */
+    boolean existsByIdentificacion(String identificacion);
+
+    /**
+     * Obtiene, de entre las identificaciones proporcionadas, las que pertenecen a algún cliente archivado.
+     *
+     * @param identificaciones Identificaciones a verificar.
+     * @return Lista de identificaciones en uso por clientes archivados.
+     */
+    @Query("SELECT c.identificacion FROM ClienteArchivado c WHERE c.identificacion IN :identificaciones")
+    List<String> findIdentificacionesExistentes(@Param("identificaciones") Collection<String> identificaciones);
+
+    /**
+     * Cuenta los clientes archivados agrupados por estado, género y edad.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Stream con el número de clientes archivados de cada combinación de estado, género y edad.
+     */
+    @Query("SELECT c.estado AS estado, c.genero AS genero, c.edad AS edad, COUNT(c) AS total "
+            + "FROM ClienteArchivado c GROUP BY c.estado, c.genero, c.edad")
+    Stream<ResumenClientes> contarPorEstadoGeneroYEdad();
+}
@@ -1,10 +1,17 @@
 package com.example.clientePersona.repository;
 
 import com.example.clientePersona.entity.Cliente;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio de JPA para la entidad {@link Cliente}.
@@ -21,6 +28,18 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      */
     Optional<Cliente> findByClienteId(String clienteId);
 
+    /**
+     * Busca un cliente por su ID bloqueando su fila hasta el final de la transacción en curso.
+     * Es una lectura actual: si otra transacción (el archivado o un rebalanceo) tiene bloqueada la fila, espera a
+     * que termine y devuelve el estado ya confirmado, en lugar de una versión que puede haber dejado de existir.
+     *
+     * @param id ID del cliente.
+     * @return Un Optional con el cliente bloqueado, o vacío si no está en la tabla.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cliente c WHERE c.id = :id")
+    Optional<Cliente> buscarPorIdParaModificar(@Param("id") Long id);
+
     /**
      * Verifica si existe un cliente con la identificación proporcionada.
      *
@@ -28,4 +47,26 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      * @return {@code true} si existe un cliente con la identificación dada, {@code false} en caso contrario.
      */
     boolean existsByIdentificacion(String identificacion);
+
+    /**
+     * Obtiene, de entre las identificaciones proporcionadas, las que ya pertenecen a algún cliente.
+     * Permite verificar duplicados de un lote completo con una sola consulta.
+     *
+     * @param identificaciones Identificaciones a verificar.
+     * @return Lista de identificaciones que ya están en uso.
+     */
+    @Query("SELECT c.identificacion FROM Cliente c WHERE c.identificacion IN :identificaciones")
+    List<String> findIdentificacionesExistentes(@Param("identificaciones") Collection<String> identificaciones);
+
+    /**
+     * Cuenta los clientes agrupados por estado, género y edad.
+     * La agregación se resuelve en la base de datos y el resultado se recorre en streaming,
+     * por lo que el coste en memoria no depende del tamaño de la tabla.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Stream con el número de clientes de cada combinación de estado, género y edad.
+     */
+    @Query("SELECT c.estado AS estado, c.genero AS genero, c.edad AS edad, COUNT(c) AS total "
+            + "FROM Cliente c GROUP BY c.estado, c.genero, c.edad")
+    Stream<ResumenClientes> contarPorEstadoGeneroYEdad();
 }
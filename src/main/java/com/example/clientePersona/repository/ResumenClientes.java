@@ -0,0 +1,15 @@
+package com.example.clientePersona.repository;
+
+/**
+ * Proyección de la consulta agregada de clientes agrupados por estado, género y edad.
+ */
+public interface ResumenClientes {
+
+    Boolean getEstado();
+
+    String getGenero();
+
+    int getEdad();
+
+    long getTotal();
+}
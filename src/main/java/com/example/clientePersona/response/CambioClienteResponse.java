@@ -0,0 +1,27 @@
+package com.example.clientePersona.response;
+
+import com.example.clientePersona.entity.TipoCambio;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Representa un cambio del feed incremental de clientes.
+ * Para los cambios de tipo {@link TipoCambio#ELIMINADO} (tombstones) solo se informan
+ * la secuencia, el tipo, el ID y el clienteId.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambioClienteResponse {
+    private Long secuencia;
+    private TipoCambio tipo;
+    private Long id;
+    private String clienteId;
+    private String nombre;
+    private String identificacion;
+    private Boolean estado;
+    private Instant fechaCambio;
+}
@@ -0,0 +1,39 @@
+package com.example.clientePersona.response;
+
+import com.example.common.dto.response.ClienteResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representación columnar de un listado de clientes.
+ * Los nombres de los campos se envían una sola vez en {@code columnas} y cada fila es un arreglo de valores
+ * en el mismo orden, evitando repetir los nombres de los campos por cada cliente.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientesColumnarResponse {
+
+    private static final List<String> COLUMNAS = List.of("clienteId", "nombre", "identificacion", "estado");
+
+    private List<String> columnas;
+    private List<Object[]> filas;
+
+    /**
+     * Construye la representación columnar a partir de una lista de clientes.
+     *
+     * @param clientes Lista de clientes a convertir.
+     * @return La representación columnar del listado.
+     */
+    public static ClientesColumnarResponse de(List<ClienteResponseDto> clientes) {
+        List<Object[]> filas = new ArrayList<>(clientes.size());
+        for (ClienteResponseDto cliente : clientes) {
+            filas.add(new Object[]{cliente.getClienteId(), cliente.getNombre(), cliente.getIdentificacion(), cliente.getEstado()});
+        }
+        return new ClientesColumnarResponse(COLUMNAS, filas);
+    }
+}
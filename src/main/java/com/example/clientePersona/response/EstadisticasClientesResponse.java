@@ -0,0 +1,24 @@
+package com.example.clientePersona.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Estadísticas agregadas de los clientes: totales por estado, por género y por rango de edad.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasClientesResponse {
+    private long total;
+    private long activos;
+    private long inactivos;
+    private Map<String, Long> porGenero;
+    private Map<String, Long> porRangoEdad;
+    private Instant ultimaReconciliacion;
+    private long ultimaDesviacion;
+}
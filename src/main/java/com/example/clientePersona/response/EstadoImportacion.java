@@ -0,0 +1,10 @@
+package com.example.clientePersona.response;
+
+/**
+ * Estados por los que pasa una importación masiva de clientes.
+ */
+public enum EstadoImportacion {
+    EN_CURSO,
+    COMPLETADA,
+    FALLIDA
+}
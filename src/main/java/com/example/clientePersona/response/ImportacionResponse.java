@@ -0,0 +1,22 @@
+package com.example.clientePersona.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progreso de una importación masiva de clientes desde un archivo CSV.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportacionResponse {
+    private String archivo;
+    private EstadoImportacion estado;
+    private long filasLeidas;
+    private long filasImportadas;
+    private long filasConError;
+    private long ultimaFilaConfirmada;
+    private String archivoErrores;
+    private String mensaje;
+}
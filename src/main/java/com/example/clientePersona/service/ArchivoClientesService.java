@@ -0,0 +1,187 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.Cliente;
+import com.example.clientePersona.entity.ClienteArchivado;
+import com.example.clientePersona.repository.ClienteArchivadoRepository;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio que separa los clientes inactivos de la tabla caliente {@code personas}.
+ * En segundo plano mueve, por lotes, los clientes con {@code estado = false} que no se modifican desde hace más
+ * de la antigüedad configurada a la tabla {@code personas_archivo}, de modo que los índices y consultas de la
+ * tabla caliente solo cubren clientes en uso. Las búsquedas por ID o clienteId recurren al archivo cuando no
+ * encuentran el cliente en la tabla caliente, y cualquier modificación de un cliente archivado lo devuelve a ella.
+ */
+@Service
+public class ArchivoClientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivoClientesService.class);
+
+    private static final String COLUMNAS = "id, nombre, genero, edad, identificacion, direccion, telefono, "
+            + "cliente_id, contraseña, estado, fecha_modificacion";
+
+    private static final String SELECCIONAR_CANDIDATOS = "SELECT id FROM personas WHERE tipo_persona = 'Cliente' "
+            + "AND estado = false AND fecha_modificacion < :limite ORDER BY id LIMIT :tamano FOR UPDATE";
+    private static final String COPIAR_A_ARCHIVO = "INSERT INTO personas_archivo (" + COLUMNAS + ", fecha_archivo) "
+            + "SELECT " + COLUMNAS + ", :ahora FROM personas WHERE id IN (:ids)";
+    private static final String ELIMINAR_DE_PERSONAS = "DELETE FROM personas WHERE id IN (:ids)";
+    private static final String BLOQUEAR_EN_ARCHIVO = "SELECT id FROM personas_archivo WHERE id = :id FOR UPDATE";
+    private static final String COPIAR_A_PERSONAS = "INSERT INTO personas (tipo_persona, " + COLUMNAS + ") "
+            + "SELECT 'Cliente', " + COLUMNAS + " FROM personas_archivo WHERE id = :id";
+    private static final String ELIMINAR_DE_ARCHIVO = "DELETE FROM personas_archivo WHERE id = :id";
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteArchivadoRepository clienteArchivadoRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration antiguedad;
+    private final int tamanoLote;
+
+    public ArchivoClientesService(ClienteRepository clienteRepository,
+                                  ClienteArchivadoRepository clienteArchivadoRepository,
+                                  NamedParameterJdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ShardRouter shardRouter,
+                                  @Value("${clientes.archivo.antiguedad:P180D}") Duration antiguedad,
+                                  @Value("${clientes.archivo.tamano-lote:500}") int tamanoLote) {
+        this.clienteRepository = clienteRepository;
+        this.clienteArchivadoRepository = clienteArchivadoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.antiguedad = antiguedad;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Mueve al archivo, en lotes de una transacción cada uno, los clientes inactivos que superan la antigüedad
+     * configurada. Los candidatos se bloquean al seleccionarlos y las ediciones y bajas leen el cliente con
+     * bloqueo ({@link ClienteRepository#buscarPorIdParaModificar}), por lo que una modificación concurrente espera a
+     * que termine el lote, no encuentra el cliente en la tabla caliente y lo restaura desde el archivo.
+     * Con sharding, cada shard se archiva por separado.
+     *
+     * @return Número de clientes archivados.
+     */
+    @Scheduled(initialDelayString = "${clientes.archivo.intervalo:PT1H}", fixedDelayString = "${clientes.archivo.intervalo:PT1H}")
+    public int archivarInactivos() {
+        Instant limite = Instant.now().minus(antiguedad);
+        int total = 0;
+        for (int shard = 0; shard < shardRouter.numeroShards(); shard++) {
+            total += shardRouter.enShard(shard, () -> archivarShard(limite));
+        }
+        if (total > 0) {
+            logger.info("Clientes inactivos archivados: {}", total);
+        }
+        return total;
+    }
+
+    private int archivarShard(Instant limite) {
+        int total = 0;
+        int archivados;
+        do {
+            archivados = transactionTemplate.execute(status -> archivarLote(limite));
+            total += archivados;
+        } while (archivados == tamanoLote);
+        return total;
+    }
+
+    private int archivarLote(Instant limite) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECCIONAR_CANDIDATOS, new MapSqlParameterSource()
+                .addValue("limite", Timestamp.from(limite))
+                .addValue("tamano", tamanoLote), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(COPIAR_A_ARCHIVO, new MapSqlParameterSource()
+                .addValue("ahora", Timestamp.from(Instant.now()))
+                .addValue("ids", ids));
+        jdbcTemplate.update(ELIMINAR_DE_PERSONAS, new MapSqlParameterSource("ids", ids));
+        return ids.size();
+    }
+
+    /**
+     * Devuelve un cliente archivado a la tabla caliente, conservando su ID y clienteId.
+     * Debe ejecutarse dentro de la transacción de la operación que modifica al cliente.
+     * La fila del archivo se bloquea antes de copiarla: si dos modificaciones restauran a la vez el mismo cliente,
+     * la segunda espera a la primera y, como ya no lo encuentra en el archivo, lo toma de la tabla caliente.
+     *
+     * @param id ID del cliente.
+     * @return Un Optional con el cliente ya restaurado en la tabla caliente (y bloqueado), o vacío si no existe.
+     */
+    public Optional<Cliente> restaurar(Long id) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("id", id);
+        if (jdbcTemplate.queryForList(BLOQUEAR_EN_ARCHIVO, parametros, Long.class).isEmpty()) {
+            return clienteRepository.buscarPorIdParaModificar(id);
+        }
+        jdbcTemplate.update(COPIAR_A_PERSONAS, parametros);
+        jdbcTemplate.update(ELIMINAR_DE_ARCHIVO, parametros);
+        logger.info("Cliente con ID {} restaurado desde el archivo", id);
+        return clienteRepository.findById(id);
+    }
+
+    /**
+     * Busca un cliente archivado por su ID.
+     *
+     * @param id ID del cliente.
+     * @return Un Optional con el cliente archivado, o vacío si no está archivado.
+     */
+    public Optional<ClienteArchivado> buscarPorId(Long id) {
+        return clienteArchivadoRepository.findById(id);
+    }
+
+    /**
+     * Busca un cliente archivado por su clienteId.
+     *
+     * @param clienteId clienteId del cliente.
+     * @return Un Optional con el cliente archivado, o vacío si no está archivado.
+     */
+    public Optional<ClienteArchivado> buscarPorClienteId(String clienteId) {
+        return clienteArchivadoRepository.findByClienteId(clienteId);
+    }
+
+    /**
+     * Obtiene todos los clientes archivados.
+     *
+     * @return Lista de clientes archivados.
+     */
+    public List<ClienteArchivado> listarArchivados() {
+        return clienteArchivadoRepository.findAll();
+    }
+
+    /**
+     * Verifica si la identificación pertenece a algún cliente archivado.
+     *
+     * @param identificacion Identificación a verificar.
+     * @return {@code true} si algún cliente archivado usa la identificación.
+     */
+    public boolean identificacionArchivada(String identificacion) {
+        return clienteArchivadoRepository.existsByIdentificacion(identificacion);
+    }
+
+    /**
+     * Obtiene, de entre las identificaciones proporcionadas, las que pertenecen a clientes archivados.
+     *
+     * @param identificaciones Identificaciones a verificar.
+     * @return Lista de identificaciones en uso por clientes archivados.
+     */
+    public List<String> identificacionesArchivadas(Collection<String> identificaciones) {
+        return clienteArchivadoRepository.findIdentificacionesExistentes(identificaciones);
+    }
+}
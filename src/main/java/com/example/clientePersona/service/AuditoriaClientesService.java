@@ -0,0 +1,247 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.CambioCliente;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Servicio de auditoría de las altas, modificaciones y eliminaciones de clientes.
+ * Registrar un evento solo lo publica en un {@link BufferAuditoria} preasignado, sin bloquear ni formatear texto;
+ * un único hilo consumidor escribe los eventos por lotes en archivos binarios de solo anexado del directorio de
+ * auditoría, que rota al alcanzar el tamaño máximo, y hace fsync periódicamente.
+ * Cada evento ocupa {@value #TAMANO_REGISTRO} bytes (big-endian): instante en milisegundos, ID de la persona,
+ * clienteId numérico (-1 si no es numérico), tipo de cambio (ordinal de {@code TipoCambio}), estado
+ * (0 = false, 1 = true, 2 = nulo) y 6 bytes de relleno.
+ * Si el buffer se llena, los eventos se descartan y se cuentan en la métrica {@code clientes.auditoria.descartados}.
+ */
+@Service
+public class AuditoriaClientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaClientesService.class);
+
+    static final int TAMANO_REGISTRO = 32;
+    private static final int TAMANO_LOTE = 1024;
+    private static final byte ESTADO_NULO = 2;
+    private static final long PAUSA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final BufferAuditoria buffer;
+    private final Path directorio;
+    private final long tamanoMaximoArchivo;
+    private final long intervaloFsyncNanos;
+    private final ByteBuffer lote = ByteBuffer.allocateDirect(TAMANO_LOTE * TAMANO_REGISTRO);
+    private final BufferAuditoria.Consumidor escritor = this::agregarAlLote;
+    private final Thread consumidor = new Thread(this::consumir, "auditoria-clientes");
+
+    private volatile boolean activo = true;
+    private FileChannel archivo;
+    private long tamanoArchivo;
+    private long ultimoFsync;
+    private boolean pendienteFsync;
+    private long descartadosInformados;
+
+    public AuditoriaClientesService(@Value("${clientes.auditoria.directorio:./auditoria}") String directorio,
+                                    @Value("${clientes.auditoria.capacidad:65536}") int capacidad,
+                                    @Value("${clientes.auditoria.tamano-maximo-archivo:64MB}") DataSize tamanoMaximoArchivo,
+                                    @Value("${clientes.auditoria.intervalo-fsync:1s}") Duration intervaloFsync,
+                                    MeterRegistry meterRegistry) {
+        this.buffer = new BufferAuditoria(capacidad);
+        this.directorio = Paths.get(directorio).toAbsolutePath().normalize();
+        this.tamanoMaximoArchivo = tamanoMaximoArchivo.toBytes();
+        this.intervaloFsyncNanos = intervaloFsync.toNanos();
+        FunctionCounter.builder("clientes.auditoria.descartados", buffer, BufferAuditoria::getDescartados)
+                .description("Eventos de auditoría descartados por buffer lleno o error de escritura")
+                .register(meterRegistry);
+        Gauge.builder("clientes.auditoria.pendientes", buffer, BufferAuditoria::getPendientes)
+                .description("Eventos de auditoría pendientes de escribir")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    /**
+     * Audita un cambio de cliente una vez confirmada la transacción en curso.
+     *
+     * @param cambio Cambio registrado en el feed.
+     */
+    public void registrar(CambioCliente cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(cambio);
+                }
+            });
+        } else {
+            publicar(cambio);
+        }
+    }
+
+    /**
+     * Audita los cambios de una misma transacción (por ejemplo, las altas de un lote importado) una vez
+     * confirmada, con una sola sincronización para todos.
+     *
+     * @param cambios Cambios registrados en el feed.
+     */
+    public void registrar(List<CambioCliente> cambios) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambios.forEach(AuditoriaClientesService.this::publicar);
+                }
+            });
+        } else {
+            cambios.forEach(this::publicar);
+        }
+    }
+
+    /**
+     * @return Número de eventos descartados desde el arranque.
+     */
+    public long getDescartados() {
+        return buffer.getDescartados();
+    }
+
+    private void publicar(CambioCliente cambio) {
+        Boolean estado = cambio.getEstado();
+        buffer.publicar((byte) cambio.getTipo().ordinal(), cambio.getFechaCambio().toEpochMilli(),
+                cambio.getPersonaId(), clienteIdNumerico(cambio.getClienteId()),
+                estado == null ? ESTADO_NULO : (byte) (estado ? 1 : 0));
+    }
+
+    private void consumir() {
+        while (activo || buffer.getPendientes() > 0) {
+            int leidos = buffer.drenar(escritor, TAMANO_LOTE);
+            if (leidos > 0) {
+                volcar(leidos);
+            } else if (activo) {
+                LockSupport.parkNanos(PAUSA_NANOS);
+            } else {
+                // Eventos reclamados por un productor que no llegó a publicarlos antes de detenerse.
+                break;
+            }
+            if (pendienteFsync && System.nanoTime() - ultimoFsync >= intervaloFsyncNanos) {
+                sincronizar();
+            }
+            informarDescartes();
+        }
+        sincronizar();
+        cerrar();
+    }
+
+    private void agregarAlLote(byte tipo, long instante, long personaId, long clienteId, byte estado) {
+        lote.putLong(instante).putLong(personaId).putLong(clienteId).put(tipo).put(estado)
+                .putInt(0).putShort((short) 0);
+    }
+
+    private void volcar(int eventos) {
+        lote.flip();
+        try {
+            if (archivo == null || tamanoArchivo >= tamanoMaximoArchivo) {
+                rotar();
+            }
+            while (lote.hasRemaining()) {
+                tamanoArchivo += archivo.write(lote);
+            }
+            pendienteFsync = true;
+        } catch (IOException e) {
+            buffer.registrarDescartes(eventos);
+            logger.error("No se pudieron escribir {} eventos de auditoría", eventos, e);
+            cerrar();
+        } finally {
+            lote.clear();
+        }
+    }
+
+    private void rotar() throws IOException {
+        sincronizar();
+        cerrar();
+        Files.createDirectories(directorio);
+        Path nuevo = directorio.resolve("auditoria-clientes-" + System.currentTimeMillis() + ".log");
+        archivo = FileChannel.open(nuevo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        tamanoArchivo = archivo.size();
+    }
+
+    private void sincronizar() {
+        if (archivo == null || !pendienteFsync) {
+            return;
+        }
+        try {
+            archivo.force(false);
+        } catch (IOException e) {
+            logger.error("No se pudo sincronizar el archivo de auditoría", e);
+        }
+        pendienteFsync = false;
+        ultimoFsync = System.nanoTime();
+    }
+
+    private void cerrar() {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            archivo.close();
+        } catch (IOException e) {
+            logger.warn("No se pudo cerrar el archivo de auditoría: {}", e.getMessage());
+        }
+        archivo = null;
+    }
+
+    private void informarDescartes() {
+        long descartados = buffer.getDescartados();
+        if (descartados > descartadosInformados) {
+            logger.warn("Eventos de auditoría descartados: {} (total {})", descartados - descartadosInformados, descartados);
+            descartadosInformados = descartados;
+        }
+    }
+
+    /**
+     * Escribe los eventos pendientes, hace fsync y detiene el hilo consumidor.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        consumidor.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static long clienteIdNumerico(String clienteId) {
+        if (clienteId == null || clienteId.isEmpty() || clienteId.length() > 18) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < clienteId.length(); i++) {
+            char c = clienteId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
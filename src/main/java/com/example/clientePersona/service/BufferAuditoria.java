@@ -0,0 +1,113 @@
+package com.example.clientePersona.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffer circular de eventos de auditoría con varios productores y un único consumidor.
+ * Los eventos tienen un formato fijo y se guardan en arreglos preasignados, por lo que publicar no crea objetos.
+ * Cada productor reclama una posición con CAS sobre la cabeza; si el buffer está lleno el evento se descarta y se
+ * cuenta, sin bloquear nunca al productor. Una posición se publica escribiendo su secuencia en {@code publicados}
+ * después de sus campos, y el consumidor solo la lee cuando ve esa secuencia.
+ */
+final class BufferAuditoria {
+
+    /**
+     * Recibe los campos de cada evento leído, sin crear objetos por evento.
+     */
+    interface Consumidor {
+        void aceptar(byte tipo, long instante, long personaId, long clienteId, byte estado);
+    }
+
+    private final int capacidad;
+    private final int mascara;
+    private final byte[] tipos;
+    private final long[] instantes;
+    private final long[] personaIds;
+    private final long[] clienteIds;
+    private final byte[] estados;
+    // Secuencia + 1 del último evento publicado en cada posición (0 = nunca publicada).
+    private final AtomicLongArray publicados;
+    private final AtomicLong cabeza = new AtomicLong();
+    private final LongAdder descartados = new LongAdder();
+    // Siguiente secuencia a consumir; solo la escribe el consumidor.
+    private volatile long cola;
+
+    BufferAuditoria(int capacidad) {
+        if (capacidad <= 0 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad del buffer de auditoría debe ser una potencia de 2.");
+        }
+        this.capacidad = capacidad;
+        this.mascara = capacidad - 1;
+        this.tipos = new byte[capacidad];
+        this.instantes = new long[capacidad];
+        this.personaIds = new long[capacidad];
+        this.clienteIds = new long[capacidad];
+        this.estados = new byte[capacidad];
+        this.publicados = new AtomicLongArray(capacidad);
+    }
+
+    /**
+     * Publica un evento.
+     *
+     * @return {@code false} si el buffer estaba lleno y el evento se descartó.
+     */
+    boolean publicar(byte tipo, long instante, long personaId, long clienteId, byte estado) {
+        long secuencia;
+        do {
+            secuencia = cabeza.get();
+            if (secuencia - cola >= capacidad) {
+                descartados.increment();
+                return false;
+            }
+        } while (!cabeza.compareAndSet(secuencia, secuencia + 1));
+
+        int posicion = (int) (secuencia & mascara);
+        tipos[posicion] = tipo;
+        instantes[posicion] = instante;
+        personaIds[posicion] = personaId;
+        clienteIds[posicion] = clienteId;
+        estados[posicion] = estado;
+        publicados.lazySet(posicion, secuencia + 1);
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor, en orden, hasta {@code maximo} eventos publicados y libera sus posiciones.
+     * Solo debe llamarse desde el hilo consumidor.
+     *
+     * @return Número de eventos entregados.
+     */
+    int drenar(Consumidor consumidor, int maximo) {
+        long siguiente = cola;
+        int entregados = 0;
+        while (entregados < maximo) {
+            int posicion = (int) (siguiente & mascara);
+            if (publicados.get(posicion) != siguiente + 1) {
+                break;
+            }
+            consumidor.aceptar(tipos[posicion], instantes[posicion], personaIds[posicion], clienteIds[posicion],
+                    estados[posicion]);
+            siguiente++;
+            entregados++;
+        }
+        cola = siguiente;
+        return entregados;
+    }
+
+    /**
+     * Cuenta como descartados eventos que ya salieron del buffer pero no pudieron escribirse.
+     */
+    void registrarDescartes(long eventos) {
+        descartados.add(eventos);
+    }
+
+    long getDescartados() {
+        return descartados.sum();
+    }
+
+    long getPendientes() {
+        return cabeza.get() - cola;
+    }
+}
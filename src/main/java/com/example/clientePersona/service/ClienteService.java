@@ -1,18 +1,29 @@
 package com.example.clientePersona.service;
 
+import com.example.clientePersona.entity.CambioCliente;
 import com.example.clientePersona.entity.Cliente;
+import com.example.clientePersona.entity.ClienteArchivado;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.exception.DatosNoValidosException;
 import com.example.clientePersona.exception.IdentificacionDuplicadaException;
 import com.example.clientePersona.exception.ResourceNotFoundException;
+import com.example.clientePersona.repository.CambioClienteRepository;
 import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.response.CambioClienteResponse;
+import com.example.clientePersona.sharding.ShardRouter;
 import com.example.common.dto.request.ClienteRequestDto;
 import com.example.common.dto.response.ClienteResponseDto;
 import org.mindrot.jbcrypt.BCrypt;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -24,11 +35,32 @@ public class ClienteService {
 
     private static final Logger logger = LoggerFactory.getLogger(ClienteService.class);
 
+    /**
+     * Número máximo de cambios que se devuelven en una sola consulta del feed de cambios.
+     */
+    static final int LIMITE_MAXIMO_CAMBIOS = 1000;
+
     private final ClienteRepository clienteRepository;
+    private final CambioClienteRepository cambioClienteRepository;
+    private final EstadisticasClientesService estadisticasClientesService;
+    private final ArchivoClientesService archivoClientesService;
+    private final SnapshotClientesService snapshotClientesService;
+    private final AuditoriaClientesService auditoriaClientesService;
+    private final ShardRouter shardRouter;
 
 
-    public ClienteService(ClienteRepository clienteRepository) {
+    public ClienteService(ClienteRepository clienteRepository, CambioClienteRepository cambioClienteRepository,
+                          EstadisticasClientesService estadisticasClientesService,
+                          ArchivoClientesService archivoClientesService,
+                          SnapshotClientesService snapshotClientesService,
+                          AuditoriaClientesService auditoriaClientesService, ShardRouter shardRouter) {
         this.clienteRepository = clienteRepository;
+        this.cambioClienteRepository = cambioClienteRepository;
+        this.estadisticasClientesService = estadisticasClientesService;
+        this.archivoClientesService = archivoClientesService;
+        this.snapshotClientesService = snapshotClientesService;
+        this.auditoriaClientesService = auditoriaClientesService;
+        this.shardRouter = shardRouter;
     }
 
     /**
@@ -37,17 +69,14 @@ public class ClienteService {
      * @param clienteRequestDto DTO con la información del cliente a crear.
      * @return DTO con la información del cliente creado.
      * @throws IdentificacionDuplicadaException si ya existe un cliente con la misma identificación.
-     * @throws IllegalArgumentException si el nombre del cliente está vacío o hay un error al guardar el cliente.
+     * @throws DatosNoValidosException si el nombre del cliente está vacío o hay un error al guardar el cliente.
      */
+    @Transactional
     public ClienteResponseDto crearCliente(ClienteRequestDto clienteRequestDto) {
-        logger.info("Intentando crear un nuevo cliente con identificación: {}", clienteRequestDto.getIdentificacion());
-
-        if (clienteRepository.existsByIdentificacion(clienteRequestDto.getIdentificacion())) {
+        if (identificacionEnUso(clienteRequestDto.getIdentificacion())) {
             throw new IdentificacionDuplicadaException("La identificación ya está en uso.");
         }
-        if (clienteRequestDto.getNombre() == null || clienteRequestDto.getNombre().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del cliente es obligatorio.");
-        }
+        validarDatosCliente(clienteRequestDto);
         Cliente cliente = new Cliente();
         cliente.setNombre(clienteRequestDto.getNombre());
         cliente.setGenero(clienteRequestDto.getGenero());
@@ -62,50 +91,99 @@ public class ClienteService {
 
         try {
             cliente = clienteRepository.save(cliente);
-            logger.info("Cliente creado exitosamente con ID: {}", cliente.getClienteId());
+            registrarCambio(TipoCambio.CREADO, cliente);
+            estadisticasClientesService.registrarAlta(EstadisticasClientesService.Muestra.de(cliente));
         } catch (DataIntegrityViolationException e) {
             logger.error("Error al guardar el cliente: {}", e.getMessage());
-            throw new IllegalArgumentException("Error al guardar el cliente. Verifique los datos ingresados.");
+            throw new DatosNoValidosException("Error al guardar el cliente. Verifique los datos ingresados.");
         }
 
         return new ClienteResponseDto(cliente.getClienteId(), cliente.getNombre(), cliente.getIdentificacion(), cliente.getEstado());
     }
 
+    /**
+     * Valida las reglas de negocio de los datos de un cliente nuevo que no dependen de la base de datos.
+     * La unicidad de la identificación se verifica aparte.
+     *
+     * @param clienteRequestDto DTO con la información del cliente a validar.
+     * @throws DatosNoValidosException si el nombre del cliente está vacío.
+     */
+    public void validarDatosCliente(ClienteRequestDto clienteRequestDto) {
+        if (clienteRequestDto.getNombre() == null || clienteRequestDto.getNombre().isEmpty()) {
+            throw new DatosNoValidosException("El nombre del cliente es obligatorio.");
+        }
+    }
+
     /**
      * Obtiene un cliente por su ID.
+     * Se responde desde el snapshot del directorio de clientes si lo contiene; si no, se busca en la tabla
+     * caliente y luego en el archivo de clientes inactivos.
      *
      * @param clienteId ID del cliente a obtener.
      * @return DTO con la información del cliente encontrado.
      * @throws ResourceNotFoundException si no se encuentra un cliente con el ID proporcionado.
      */
     public ClienteResponseDto obtenerClientePorId(Long clienteId) {
-        Cliente cliente = clienteRepository.findById(clienteId)
+        Optional<ClienteResponseDto> enSnapshot = snapshotClientesService.buscarPorId(clienteId);
+        if (enSnapshot.isPresent()) {
+            return enSnapshot.get();
+        }
+        Optional<Cliente> cliente = clienteRepository.findById(clienteId);
+        if (cliente.isPresent()) {
+            return new ClienteResponseDto(cliente.get().getClienteId(), cliente.get().getNombre(), cliente.get().getIdentificacion(), cliente.get().getEstado());
+        }
+        ClienteArchivado archivado = archivoClientesService.buscarPorId(clienteId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado con el ID: " + clienteId));
 
-        return new ClienteResponseDto(cliente.getClienteId(), cliente.getNombre(), cliente.getIdentificacion(), cliente.getEstado());
+        return new ClienteResponseDto(archivado.getClienteId(), archivado.getNombre(), archivado.getIdentificacion(), archivado.getEstado());
+    }
+
+    /**
+     * Obtiene un cliente por su clienteId.
+     * Se responde desde el snapshot del directorio de clientes si lo contiene; si no, se busca en la tabla
+     * caliente y luego en el archivo de clientes inactivos.
+     *
+     * @param clienteId clienteId del cliente a obtener.
+     * @return DTO con la información del cliente encontrado.
+     * @throws ResourceNotFoundException si no se encuentra un cliente con el clienteId proporcionado.
+     */
+    public ClienteResponseDto obtenerClientePorClienteId(String clienteId) {
+        Optional<ClienteResponseDto> enSnapshot = snapshotClientesService.buscarPorClienteId(clienteId);
+        if (enSnapshot.isPresent()) {
+            return enSnapshot.get();
+        }
+        Optional<Cliente> cliente = clienteRepository.findByClienteId(clienteId);
+        if (cliente.isPresent()) {
+            return new ClienteResponseDto(cliente.get().getClienteId(), cliente.get().getNombre(), cliente.get().getIdentificacion(), cliente.get().getEstado());
+        }
+        ClienteArchivado archivado = archivoClientesService.buscarPorClienteId(clienteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado con el clienteId: " + clienteId));
+
+        return new ClienteResponseDto(archivado.getClienteId(), archivado.getNombre(), archivado.getIdentificacion(), archivado.getEstado());
     }
 
     /**
      * Actualiza un cliente existente.
+     * Si el cliente estaba archivado, vuelve primero a la tabla caliente.
      *
      * @param clienteId ID del cliente a actualizar.
      * @param clienteRequestDto DTO con la nueva información del cliente.
      * @return DTO con la información del cliente actualizado.
      * @throws IdentificacionDuplicadaException si la nueva identificación ya está en uso.
      * @throws ResourceNotFoundException si no se encuentra un cliente con el ID proporcionado.
-     * @throws IllegalArgumentException si hay un error al actualizar el cliente.
+     * @throws DatosNoValidosException si hay un error al actualizar el cliente.
      */
+    @Transactional
     public ClienteResponseDto editarCliente(Long clienteId, ClienteRequestDto clienteRequestDto) {
-        logger.info("Editando cliente con ID: {}", clienteId);
-        Cliente cliente = clienteRepository.findById(clienteId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado con el ID: " + clienteId));
+        Cliente cliente = buscarParaModificar(clienteId);
 
         if (clienteRequestDto.getIdentificacion() != null &&
                 !cliente.getIdentificacion().equals(clienteRequestDto.getIdentificacion()) &&
-                clienteRepository.existsByIdentificacion(clienteRequestDto.getIdentificacion())) {
+                identificacionEnUso(clienteRequestDto.getIdentificacion())) {
             throw new IdentificacionDuplicadaException("La identificación ya está en uso.");
         }
 
+        EstadisticasClientesService.Muestra anterior = EstadisticasClientesService.Muestra.de(cliente);
         cliente.setNombre(clienteRequestDto.getNombre());
         cliente.setGenero(clienteRequestDto.getGenero());
         cliente.setEdad(clienteRequestDto.getEdad());
@@ -119,8 +197,10 @@ public class ClienteService {
 
         try {
             cliente = clienteRepository.save(cliente);
+            registrarCambio(TipoCambio.MODIFICADO, cliente);
+            estadisticasClientesService.registrarModificacion(anterior, EstadisticasClientesService.Muestra.de(cliente));
         } catch (DataIntegrityViolationException e) {
-            throw new IllegalArgumentException("Error al actualizar el cliente. Verifique los datos ingresados.");
+            throw new DatosNoValidosException("Error al actualizar el cliente. Verifique los datos ingresados.");
         }
 
         return new ClienteResponseDto(cliente.getClienteId(), cliente.getNombre(), cliente.getIdentificacion(), cliente.getEstado());
@@ -132,21 +212,112 @@ public class ClienteService {
      * @param clienteId ID del cliente a eliminar.
      * @throws ResourceNotFoundException si no se encuentra un cliente con el ID proporcionado.
      */
+    @Transactional
     public void eliminarCliente(Long clienteId) {
-        Cliente cliente = clienteRepository.findById(clienteId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado con el ID: " + clienteId));
+        Cliente cliente = buscarParaModificar(clienteId);
         clienteRepository.delete(cliente);
+        registrarCambio(TipoCambio.ELIMINADO, cliente);
+        estadisticasClientesService.registrarBaja(EstadisticasClientesService.Muestra.de(cliente));
     }
 
     /**
-     * Obtiene todos los clientes.
+     * Obtiene todos los clientes, incluidos los archivados.
      *
      * @return Lista de DTOs con la información de todos los clientes.
      */
     public List<ClienteResponseDto> getAllClientes() {
         List<Cliente> clientes = clienteRepository.findAll();
-        return clientes.stream()
+        List<ClienteResponseDto> respuesta = clientes.stream()
                 .map(cliente -> new ClienteResponseDto(cliente.getClienteId(), cliente.getNombre(), cliente.getIdentificacion(), cliente.getEstado()))
                 .collect(Collectors.toList());
+        archivoClientesService.listarArchivados().forEach(archivado -> respuesta.add(
+                new ClienteResponseDto(archivado.getClienteId(), archivado.getNombre(), archivado.getIdentificacion(), archivado.getEstado())));
+        return respuesta;
+    }
+
+    /**
+     * Obtiene los cambios de clientes (altas, modificaciones y eliminaciones) posteriores a una secuencia.
+     * Las eliminaciones se devuelven como tombstones que solo contienen la identificación del cliente.
+     * Con sharding, cada shard tiene su propio feed con su propia secuencia y el consumidor debe indicar cuál lee,
+     * para que no se quede sin ver los cambios del resto de shards.
+     *
+     * @param desde Secuencia a partir de la cual (sin incluirla) se devuelven los cambios.
+     * @param limite Número máximo de cambios a devolver; se acota entre 1 y {@value #LIMITE_MAXIMO_CAMBIOS}.
+     * @param shard Shard cuyo feed se consulta; sin sharding puede omitirse.
+     * @return Lista de cambios ordenados por secuencia ascendente.
+     * @throws DatosNoValidosException si la secuencia es negativa, el shard no existe o falta con sharding.
+     */
+    @Transactional(readOnly = true)
+    public List<CambioClienteResponse> obtenerCambiosDesde(long desde, int limite, Integer shard) {
+        if (desde < 0) {
+            throw new DatosNoValidosException("La secuencia no puede ser negativa.");
+        }
+        if (shard == null) {
+            if (shardRouter.habilitado()) {
+                throw new DatosNoValidosException("Con sharding hay que indicar el shard del feed (de 0 a "
+                        + (shardRouter.numeroShards() - 1) + ").");
+            }
+            shard = 0;
+        }
+        if (shard < 0 || shard >= shardRouter.numeroShards()) {
+            throw new DatosNoValidosException("El shard " + shard + " no existe.");
+        }
+        int limiteAcotado = Math.max(1, Math.min(limite, LIMITE_MAXIMO_CAMBIOS));
+        return shardRouter.enShard(shard, () -> cambioClienteRepository
+                        .findBySecuenciaGreaterThanOrderBySecuenciaAsc(desde, PageRequest.of(0, limiteAcotado)))
+                .stream()
+                .map(cambio -> new CambioClienteResponse(cambio.getSecuencia(), cambio.getTipo(), cambio.getPersonaId(),
+                        cambio.getClienteId(), cambio.getNombre(), cambio.getIdentificacion(), cambio.getEstado(),
+                        cambio.getFechaCambio()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Busca un cliente en la tabla caliente para modificarlo; si está archivado, lo restaura antes.
+     * La lectura bloquea la fila, de modo que si el archivado está moviendo al cliente se espera a que termine
+     * y el cliente se encuentra en el archivo.
+     *
+     * @param clienteId ID del cliente.
+     * @return El cliente gestionado por JPA.
+     * @throws ResourceNotFoundException si el cliente no existe ni en la tabla caliente ni en el archivo.
+     */
+    private Cliente buscarParaModificar(Long clienteId) {
+        return clienteRepository.buscarPorIdParaModificar(clienteId)
+                .or(() -> archivoClientesService.restaurar(clienteId))
+                .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado con el ID: " + clienteId));
+    }
+
+    /**
+     * Verifica si la identificación está en uso por algún cliente, activo o archivado.
+     */
+    private boolean identificacionEnUso(String identificacion) {
+        return clienteRepository.existsByIdentificacion(identificacion) || archivoClientesService.identificacionArchivada(identificacion);
+    }
+
+    /**
+     * Registra un cambio sobre un cliente en el feed de cambios.
+     * Se ejecuta dentro de la misma transacción que la escritura del cliente para que la secuencia
+     * nunca apunte a un cambio que no se haya confirmado. La secuencia se obtiene con el bloqueo del feed tomado,
+     * y este se mantiene hasta confirmar: así ninguna transacción concurrente confirma antes una secuencia mayor
+     * que un consumidor podría leer dejando atrás la nuestra.
+     *
+     * @param tipo Tipo de cambio realizado.
+     * @param cliente Cliente afectado por el cambio.
+     */
+    private void registrarCambio(TipoCambio tipo, Cliente cliente) {
+        CambioCliente cambio = new CambioCliente();
+        cambio.setTipo(tipo);
+        cambio.setPersonaId(cliente.getId());
+        cambio.setClienteId(cliente.getClienteId());
+        if (tipo != TipoCambio.ELIMINADO) {
+            cambio.setNombre(cliente.getNombre());
+            cambio.setIdentificacion(cliente.getIdentificacion());
+            cambio.setEstado(cliente.getEstado());
+        }
+        cambio.setFechaCambio(Instant.now());
+        cambioClienteRepository.bloquearSecuencia();
+        cambioClienteRepository.save(cambio);
+        snapshotClientesService.registrar(cambio);
+        auditoriaClientesService.registrar(cambio);
     }
 }
@@ -0,0 +1,376 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.Cliente;
+import com.example.clientePersona.repository.ClienteArchivadoRepository;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.repository.ResumenClientes;
+import com.example.clientePersona.response.EstadisticasClientesResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Servicio que mantiene en memoria las estadísticas agregadas de clientes (activos/inactivos, género y
+ * rangos de edad) para responder en tiempo constante sin recorrer la tabla.
+ * Los contadores se reconstruyen al arrancar, en segundo plano, con una consulta agregada, se actualizan de forma incremental
+ * tras confirmarse cada alta, modificación o baja, y se reconcilian periódicamente con la base de datos para
+ * corregir cualquier desviación (por ejemplo, escrituras hechas por otras instancias).
+ * Para que la reconciliación no borre incrementos concurrentes, cada actualización avanza una versión y se cuentan
+ * las transacciones que están confirmándose; la corrección solo se aplica si ninguna actualización se cruzó con la
+ * consulta agregada. Hasta que la primera reconstrucción termina, las estadísticas se calculan directamente en la
+ * base de datos.
+ */
+@Service
+public class EstadisticasClientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasClientesService.class);
+
+    static final String GENERO_DESCONOCIDO = "desconocido";
+    private static final int RANGOS_EDAD = 10;
+    private static final int INTENTOS_RECONCILIACION = 5;
+    private static final int INTENTOS_CARGA = 10;
+    private static final long ESPERA_INICIAL_CARGA_MS = 200;
+    private static final long ESPERA_MAXIMA_CARGA_MS = 10_000;
+    /**
+     * Reconciliaciones pospuestas seguidas a partir de las cuales se avisa de que la desviación no se corrige.
+     */
+    private static final int AVISO_POSPUESTAS = 3;
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteArchivadoRepository clienteArchivadoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Contadores contadores = new Contadores();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger enConfirmacion = new AtomicInteger();
+    private final AtomicInteger pospuestasSeguidas = new AtomicInteger();
+    private final Counter pospuestas;
+    private final ExecutorService ejecutorCarga = Executors.newSingleThreadExecutor();
+
+    private volatile boolean inicializado;
+    private volatile Instant ultimaReconciliacion;
+    private volatile long ultimaDesviacion;
+
+    public EstadisticasClientesService(ClienteRepository clienteRepository,
+                                       ClienteArchivadoRepository clienteArchivadoRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       MeterRegistry meterRegistry) {
+        this.clienteRepository = clienteRepository;
+        this.clienteArchivadoRepository = clienteArchivadoRepository;
+        this.transactionTemplate = transactionTemplate;
+        Gauge.builder("clientes.estadisticas.desviacion", this, s -> s.ultimaDesviacion)
+                .description("Diferencia absoluta entre los contadores y la base de datos en la última reconciliación")
+                .register(meterRegistry);
+        this.pospuestas = Counter.builder("clientes.estadisticas.reconciliaciones.pospuestas")
+                .description("Reconciliaciones (o cargas iniciales) abandonadas por cruzarse con escrituras concurrentes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Valores de un cliente que intervienen en las estadísticas.
+     */
+    public record Muestra(Boolean estado, String genero, int edad) {
+
+        public static Muestra de(Cliente cliente) {
+            return new Muestra(cliente.getEstado(), cliente.getGenero(), cliente.getEdad());
+        }
+    }
+
+    /**
+     * Registra el alta de un cliente una vez confirmada la transacción en curso.
+     *
+     * @param muestra Valores del cliente creado.
+     */
+    public void registrarAlta(Muestra muestra) {
+        alConfirmar(() -> contadores.aplicar(muestra, 1));
+    }
+
+    /**
+     * Registra la modificación de un cliente una vez confirmada la transacción en curso.
+     *
+     * @param anterior Valores del cliente antes de la modificación.
+     * @param actual Valores del cliente después de la modificación.
+     */
+    public void registrarModificacion(Muestra anterior, Muestra actual) {
+        if (anterior.equals(actual)) {
+            return;
+        }
+        alConfirmar(() -> {
+            contadores.aplicar(anterior, -1);
+            contadores.aplicar(actual, 1);
+        });
+    }
+
+    /**
+     * Registra la baja de un cliente una vez confirmada la transacción en curso.
+     *
+     * @param muestra Valores del cliente eliminado.
+     */
+    public void registrarBaja(Muestra muestra) {
+        alConfirmar(() -> contadores.aplicar(muestra, -1));
+    }
+
+    /**
+     * Obtiene las estadísticas actuales a partir de los contadores en memoria.
+     *
+     * @return DTO con las estadísticas agregadas de los clientes.
+     */
+    public EstadisticasClientesResponse obtenerEstadisticas() {
+        Contadores contadores = inicializado ? this.contadores : consultar();
+        long activos = contadores.activos.sum();
+        long inactivos = contadores.inactivos.sum();
+        Map<String, Long> porGenero = new LinkedHashMap<>();
+        contadores.porGenero.forEach((genero, total) -> porGenero.put(genero, total.sum()));
+        Map<String, Long> porRangoEdad = new LinkedHashMap<>();
+        for (int i = 0; i < RANGOS_EDAD; i++) {
+            porRangoEdad.put(etiquetaRangoEdad(i), contadores.porRangoEdad[i].sum());
+        }
+        return new EstadisticasClientesResponse(activos + inactivos, activos, inactivos, porGenero, porRangoEdad,
+                ultimaReconciliacion, ultimaDesviacion);
+    }
+
+    /**
+     * Lanza en segundo plano la construcción de los contadores al arrancar la aplicación, para no retener el
+     * evento de arranque mientras la consulta agregada se cruza con escrituras.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        ejecutorCarga.execute(this::cargar);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutorCarga.shutdownNow();
+    }
+
+    /**
+     * Construye los contadores a partir de la base de datos. Cada intento que se cruza con escrituras se repite
+     * tras una espera que se duplica (hasta {@value #ESPERA_MAXIMA_CARGA_MS} ms); tras {@value #INTENTOS_CARGA}
+     * intentos la carga queda en manos de la reconciliación periódica.
+     */
+    void cargar() {
+        long espera = ESPERA_INICIAL_CARGA_MS;
+        for (int intento = 1; intento <= INTENTOS_CARGA; intento++) {
+            if (intentarReconciliar()) {
+                return;
+            }
+            logger.debug("Inicialización de estadísticas de clientes cruzada con escrituras concurrentes; se repite en {} ms", espera);
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_CARGA_MS);
+        }
+        posponer("Inicialización de estadísticas de clientes pospuesta a la reconciliación periódica");
+    }
+
+    /**
+     * Compara los contadores con una consulta agregada sobre la base de datos (tabla caliente y archivo)
+     * y corrige las diferencias.
+     * Los valores de los contadores se toman tras la consulta y solo se usan si, desde antes de lanzarla, no hubo
+     * transacciones confirmándose ni actualizaciones de los contadores: así ambos reflejan el mismo estado. Si la
+     * consulta se cruza con escrituras se repite, y tras {@value #INTENTOS_RECONCILIACION} intentos la
+     * reconciliación se pospone a la siguiente ejecución; las pospuestas se cuentan en la métrica
+     * {@code clientes.estadisticas.reconciliaciones.pospuestas} y, si se encadenan, se avisa en el log. Las correcciones se aplican como incrementos sobre los
+     * valores tomados, por lo que las actualizaciones posteriores a la comprobación se conservan.
+     */
+    @Scheduled(initialDelayString = "${clientes.estadisticas.intervalo-reconciliacion:PT10M}",
+            fixedDelayString = "${clientes.estadisticas.intervalo-reconciliacion:PT10M}")
+    public void reconciliar() {
+        for (int intento = 1; intento <= INTENTOS_RECONCILIACION; intento++) {
+            if (intentarReconciliar()) {
+                return;
+            }
+        }
+        posponer("Reconciliación de estadísticas de clientes pospuesta: la consulta se cruzó con escrituras concurrentes");
+    }
+
+    private void posponer(String mensaje) {
+        pospuestas.increment();
+        int seguidas = pospuestasSeguidas.incrementAndGet();
+        if (seguidas >= AVISO_POSPUESTAS) {
+            logger.warn("{} ({} seguidas; los contadores no se corrigen mientras siga la carga de escrituras)", mensaje, seguidas);
+        } else {
+            logger.info(mensaje);
+        }
+    }
+
+    /**
+     * Sincronizado para que la carga inicial y la reconciliación periódica no apliquen la misma corrección dos veces.
+     */
+    private synchronized boolean intentarReconciliar() {
+        boolean libre = enConfirmacion.get() == 0;
+        long versionInicial = version.get();
+        Contadores reales = consultar();
+        Valores tomados = new Valores(contadores);
+        if (!libre || enConfirmacion.get() != 0 || version.get() != versionInicial) {
+            return false;
+        }
+        corregir(reales, tomados);
+        pospuestasSeguidas.set(0);
+        if (!inicializado) {
+            inicializado = true;
+            logger.info("Estadísticas de clientes inicializadas: {} clientes", contadores.activos.sum() + contadores.inactivos.sum());
+        }
+        return true;
+    }
+
+    private Contadores consultar() {
+        Contadores reales = new Contadores();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ResumenClientes> resumen = clienteRepository.contarPorEstadoGeneroYEdad();
+                 Stream<ResumenClientes> resumenArchivo = clienteArchivadoRepository.contarPorEstadoGeneroYEdad()) {
+                Stream.concat(resumen, resumenArchivo).forEach(fila ->
+                        reales.aplicar(new Muestra(fila.getEstado(), fila.getGenero(), fila.getEdad()), fila.getTotal()));
+            }
+        });
+        return reales;
+    }
+
+    private void corregir(Contadores reales, Valores tomados) {
+        long desviacion = ajustar(contadores.activos, tomados.activos, reales.activos.sum())
+                + ajustar(contadores.inactivos, tomados.inactivos, reales.inactivos.sum());
+        Set<String> generos = new HashSet<>(tomados.porGenero.keySet());
+        generos.addAll(reales.porGenero.keySet());
+        for (String genero : generos) {
+            LongAdder real = reales.porGenero.get(genero);
+            desviacion += ajustar(contadores.contadorGenero(genero), tomados.porGenero.getOrDefault(genero, 0L),
+                    real == null ? 0 : real.sum());
+        }
+        for (int i = 0; i < RANGOS_EDAD; i++) {
+            desviacion += ajustar(contadores.porRangoEdad[i], tomados.porRangoEdad[i], reales.porRangoEdad[i].sum());
+        }
+
+        ultimaDesviacion = inicializado ? desviacion : 0;
+        ultimaReconciliacion = Instant.now();
+        if (inicializado && desviacion > 0) {
+            logger.warn("Reconciliación de estadísticas de clientes: desviación corregida de {}", desviacion);
+        }
+    }
+
+    private long ajustar(LongAdder contador, long tomado, long real) {
+        long diferencia = real - tomado;
+        contador.add(diferencia);
+        return Math.abs(diferencia);
+    }
+
+    /**
+     * Aplica la actualización cuando se confirma la transacción en curso. Mientras la transacción se confirma
+     * cuenta como escritura en curso, de modo que una reconciliación simultánea no use sus resultados.
+     */
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean confirmando;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    enConfirmacion.incrementAndGet();
+                    confirmando = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (!confirmando) {
+                        return;
+                    }
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            accion.run();
+                            version.incrementAndGet();
+                        }
+                    } finally {
+                        enConfirmacion.decrementAndGet();
+                    }
+                }
+            });
+        } else {
+            enConfirmacion.incrementAndGet();
+            try {
+                accion.run();
+                version.incrementAndGet();
+            } finally {
+                enConfirmacion.decrementAndGet();
+            }
+        }
+    }
+
+    static int rangoEdad(int edad) {
+        return Math.max(0, Math.min(edad / 10, RANGOS_EDAD - 1));
+    }
+
+    private static String etiquetaRangoEdad(int rango) {
+        return rango == RANGOS_EDAD - 1 ? (rango * 10) + "+" : (rango * 10) + "-" + (rango * 10 + 9);
+    }
+
+    /**
+     * Valores de los contadores tomados en un instante, con los que se calculan las correcciones.
+     */
+    private static final class Valores {
+        private final long activos;
+        private final long inactivos;
+        private final Map<String, Long> porGenero = new HashMap<>();
+        private final long[] porRangoEdad = new long[RANGOS_EDAD];
+
+        private Valores(Contadores contadores) {
+            activos = contadores.activos.sum();
+            inactivos = contadores.inactivos.sum();
+            contadores.porGenero.forEach((genero, total) -> porGenero.put(genero, total.sum()));
+            for (int i = 0; i < RANGOS_EDAD; i++) {
+                porRangoEdad[i] = contadores.porRangoEdad[i].sum();
+            }
+        }
+    }
+
+    /**
+     * Contadores concurrentes de las estadísticas, basados en {@link LongAdder} para no contender entre escrituras.
+     */
+    private static final class Contadores {
+        private final LongAdder activos = new LongAdder();
+        private final LongAdder inactivos = new LongAdder();
+        private final Map<String, LongAdder> porGenero = new ConcurrentHashMap<>();
+        private final LongAdder[] porRangoEdad = new LongAdder[RANGOS_EDAD];
+
+        private Contadores() {
+            for (int i = 0; i < RANGOS_EDAD; i++) {
+                porRangoEdad[i] = new LongAdder();
+            }
+        }
+
+        private void aplicar(Muestra muestra, long delta) {
+            (Boolean.TRUE.equals(muestra.estado()) ? activos : inactivos).add(delta);
+            contadorGenero(muestra.genero()).add(delta);
+            porRangoEdad[rangoEdad(muestra.edad())].add(delta);
+        }
+
+        private LongAdder contadorGenero(String genero) {
+            String clave = genero == null || genero.isBlank() ? GENERO_DESCONOCIDO : genero;
+            return porGenero.computeIfAbsent(clave, g -> new LongAdder());
+        }
+    }
+}
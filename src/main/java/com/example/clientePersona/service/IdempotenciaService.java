@@ -0,0 +1,181 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.exception.ClaveIdempotenciaReutilizadaException;
+import com.example.clientePersona.exception.ConflictoException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Servicio que implementa la semántica de la cabecera {@code Idempotency-Key}.
+ * La primera respuesta (estado y cuerpo) obtenida para una clave se guarda durante un tiempo limitado y se
+ * devuelve en los reintentos sin volver a ejecutar la operación. Si llega un duplicado mientras la solicitud
+ * original sigue en curso, espera a su resultado en lugar de ejecutarse en paralelo.
+ * Cada clave queda asociada a la huella (SHA-256) de la solicitud que la usó primero; reutilizarla con otra
+ * solicitud se rechaza en lugar de devolver una respuesta que no le corresponde.
+ * El almacén está acotado: al superar el máximo de entradas se descartan primero las más antiguas, salvo las que
+ * siguen en curso, ya que un duplicado concurrente volvería a ejecutar la operación.
+ */
+@Service
+public class IdempotenciaService {
+
+    /**
+     * Cabecera que se agrega a las respuestas devueltas desde el almacén en lugar de ejecutarse de nuevo.
+     */
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private final long ttlNanos;
+    private final int maximoEntradas;
+    private final long esperaMaximaNanos;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Queue<Entrada> orden = new ConcurrentLinkedQueue<>();
+
+    public IdempotenciaService(@Value("${clientes.idempotencia.ttl:24h}") Duration ttl,
+                               @Value("${clientes.idempotencia.maximo-entradas:10000}") int maximoEntradas,
+                               @Value("${clientes.idempotencia.espera-maxima:30s}") Duration esperaMaxima,
+                               ObjectMapper objectMapper) {
+        this.ttlNanos = ttl.toNanos();
+        this.maximoEntradas = maximoEntradas;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave de idempotencia.
+     *
+     * @param clave Valor de la cabecera {@code Idempotency-Key}.
+     * @param solicitud Cuerpo de la solicitud; su huella se compara con la de la solicitud que usó la clave primero.
+     * @param operacion Operación a ejecutar si la clave no tiene una respuesta guardada.
+     * @return La respuesta de la operación, o la respuesta guardada si la clave ya se utilizó.
+     * @throws ConflictoException si la solicitud original no termina dentro de la espera máxima.
+     * @throws ClaveIdempotenciaReutilizadaException si la clave ya se utilizó con una solicitud distinta.
+     */
+    public ResponseEntity<String> ejecutar(String clave, Object solicitud, Supplier<ResponseEntity<String>> operacion) {
+        byte[] huella = huella(solicitud);
+        while (true) {
+            long ahora = System.nanoTime();
+            Entrada nueva = new Entrada(clave, huella, ahora + ttlNanos);
+            Entrada existente = entradas.putIfAbsent(clave, nueva);
+            if (existente == null) {
+                orden.add(nueva);
+                desalojar(ahora);
+                return ejecutarOriginal(nueva, operacion);
+            }
+            if (existente.expirada(ahora)) {
+                entradas.remove(clave, existente);
+                continue;
+            }
+            if (!Arrays.equals(existente.huella, huella)) {
+                throw new ClaveIdempotenciaReutilizadaException(
+                        "La Idempotency-Key ya se utilizó con una solicitud distinta.");
+            }
+            return esperarRespuesta(existente);
+        }
+    }
+
+    private ResponseEntity<String> ejecutarOriginal(Entrada entrada, Supplier<ResponseEntity<String>> operacion) {
+        ResponseEntity<String> respuesta;
+        try {
+            respuesta = operacion.get();
+        } catch (RuntimeException e) {
+            // Los errores no se guardan: un reintento posterior vuelve a ejecutar la operación.
+            entradas.remove(entrada.clave, entrada);
+            entrada.respuesta.completeExceptionally(e);
+            throw e;
+        }
+        entrada.respuesta.complete(respuesta);
+        return respuesta;
+    }
+
+    private ResponseEntity<String> esperarRespuesta(Entrada entrada) {
+        ResponseEntity<String> original;
+        try {
+            original = entrada.respuesta.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictoException("Hay una solicitud en curso con la misma Idempotency-Key.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera de la solicitud original.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(CABECERA_REPETIDA, "true")
+                .body(original.getBody());
+    }
+
+    /**
+     * Elimina las entradas expiradas y, si aún se supera el máximo, las más antiguas.
+     * Las entradas en curso no se eliminan: se vuelven a encolar y el almacén puede superar el máximo
+     * temporalmente, como mucho en el número de solicitudes en curso.
+     */
+    private void desalojar(long ahora) {
+        int enCurso = 0;
+        Entrada masAntigua;
+        while ((masAntigua = orden.peek()) != null
+                && (masAntigua.expirada(ahora) || entradas.size() > maximoEntradas)) {
+            if (!orden.remove(masAntigua)) {
+                continue;
+            }
+            if (masAntigua.respuesta.isDone()) {
+                entradas.remove(masAntigua.clave, masAntigua);
+            } else if (entradas.get(masAntigua.clave) == masAntigua) {
+                orden.add(masAntigua);
+                if (++enCurso >= entradas.size()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private byte[] huella(Object solicitud) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(solicitud));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud.", e);
+        }
+    }
+
+    int getNumeroEntradas() {
+        return entradas.size();
+    }
+
+    private static final class Entrada {
+        private final String clave;
+        private final byte[] huella;
+        private final long expiraEn;
+        private final CompletableFuture<ResponseEntity<String>> respuesta = new CompletableFuture<>();
+
+        private Entrada(String clave, byte[] huella, long expiraEn) {
+            this.clave = clave;
+            this.huella = huella;
+            this.expiraEn = expiraEn;
+        }
+
+        private boolean expirada(long ahora) {
+            return ahora - expiraEn >= 0;
+        }
+    }
+}
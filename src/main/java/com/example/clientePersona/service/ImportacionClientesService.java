@@ -0,0 +1,488 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.CambioCliente;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.exception.ConflictoException;
+import com.example.clientePersona.exception.DatosNoValidosException;
+import com.example.clientePersona.exception.ResourceNotFoundException;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.response.EstadoImportacion;
+import com.example.clientePersona.response.ImportacionResponse;
+import com.example.clientePersona.sharding.ShardRouter;
+import com.example.common.dto.request.ClienteRequestDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la importación masiva de clientes desde archivos CSV.
+ * El archivo se lee en streaming desde el directorio de importaciones configurado; cada fila se valida con las
+ * mismas reglas que {@link ClienteService#crearCliente}, las contraseñas se encriptan en paralelo y los clientes
+ * se insertan en lotes JDBC. Como máximo hay {@code lotesEnVuelo} lotes en memoria: la lectura se detiene hasta
+ * que el lote más antiguo se confirma.
+ *
+ * <p>Las altas de cada lote se registran en el feed de cambios y se auditan, una por cliente, al confirmarse el
+ * lote.</p>
+ *
+ * <p>Tras confirmar cada lote se guarda la última fila confirmada en {@code <archivo>.checkpoint}, de modo que
+ * volver a lanzar la importación del mismo archivo continúa desde ese punto. Las filas rechazadas se escriben en
+ * {@code <archivo>.errores} junto con su número de fila y el motivo.</p>
+ */
+@Service
+public class ImportacionClientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionClientesService.class);
+
+    static final List<String> COLUMNAS = List.of("nombre", "genero", "edad", "identificacion", "direccion",
+            "telefono", "contrasena", "estado");
+
+    private static final Pattern NOMBRE_ARCHIVO = Pattern.compile("[\\w.-]+");
+    private static final int REINTENTOS_CLIENTE_ID = 3;
+
+    private static final String INSERTAR_CLIENTE = "INSERT INTO personas (tipo_persona, nombre, genero, edad, "
+            + "identificacion, direccion, telefono, cliente_id, contraseña, estado, fecha_modificacion) "
+            + "VALUES ('Cliente', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERTAR_CAMBIO = "INSERT INTO cambios_clientes (tipo, persona_id, cliente_id, nombre, "
+            + "identificacion, estado, fecha_cambio) SELECT 'CREADO', id, cliente_id, nombre, identificacion, estado, ? "
+            + "FROM personas WHERE cliente_id = ?";
+    private static final String BLOQUEAR_SECUENCIA = "SELECT id FROM cambios_clientes_bloqueo WHERE id = 1 FOR UPDATE";
+    private static final String ALTAS_DEL_LOTE = "SELECT id, cliente_id, nombre, identificacion, estado FROM personas "
+            + "WHERE cliente_id IN (";
+
+    private final ClienteService clienteService;
+    private final EstadisticasClientesService estadisticasClientesService;
+    private final ArchivoClientesService archivoClientesService;
+    private final AuditoriaClientesService auditoriaClientesService;
+    private final ClienteRepository clienteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Validator validator;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final int lotesEnVuelo;
+    private final ExecutorService ejecutorImportaciones = Executors.newSingleThreadExecutor();
+    private final ExecutorService ejecutorHash;
+    private final Map<String, Progreso> importaciones = new ConcurrentHashMap<>();
+
+    public ImportacionClientesService(ClienteService clienteService,
+                                      EstadisticasClientesService estadisticasClientesService,
+                                      ArchivoClientesService archivoClientesService,
+                                      AuditoriaClientesService auditoriaClientesService,
+                                      ClienteRepository clienteRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      ShardRouter shardRouter,
+                                      Validator validator,
+                                      @Value("${clientes.importacion.directorio:./importaciones}") String directorio,
+                                      @Value("${clientes.importacion.tamano-lote:1000}") int tamanoLote,
+                                      @Value("${clientes.importacion.lotes-en-vuelo:2}") int lotesEnVuelo,
+                                      @Value("${clientes.importacion.hilos-hash:0}") int hilosHash) {
+        this.clienteService = clienteService;
+        this.estadisticasClientesService = estadisticasClientesService;
+        this.archivoClientesService = archivoClientesService;
+        this.auditoriaClientesService = auditoriaClientesService;
+        this.clienteRepository = clienteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.validator = validator;
+        this.directorio = Paths.get(directorio).toAbsolutePath().normalize();
+        this.tamanoLote = tamanoLote;
+        this.lotesEnVuelo = Math.max(1, lotesEnVuelo);
+        this.ejecutorHash = Executors.newFixedThreadPool(
+                hilosHash > 0 ? hilosHash : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Inicia en segundo plano la importación de un archivo CSV del directorio de importaciones.
+     * Si el archivo ya se importó parcialmente, la importación continúa desde el último lote confirmado.
+     *
+     * @param archivo Nombre del archivo CSV dentro del directorio de importaciones.
+     * @return El progreso inicial de la importación.
+     * @throws DatosNoValidosException si el nombre del archivo no es válido.
+     * @throws ResourceNotFoundException si el archivo no existe.
+     * @throws ConflictoException si ya hay una importación en curso para el mismo archivo.
+     */
+    public ImportacionResponse iniciarImportacion(String archivo) {
+        Path ruta = resolverArchivo(archivo);
+        if (!Files.isRegularFile(ruta)) {
+            throw new ResourceNotFoundException("Archivo de importación no encontrado: " + archivo);
+        }
+        Progreso progreso = new Progreso(archivo);
+        Progreso anterior = importaciones.get(archivo);
+        boolean registrado = anterior == null
+                ? importaciones.putIfAbsent(archivo, progreso) == null
+                : anterior.estado != EstadoImportacion.EN_CURSO && importaciones.replace(archivo, anterior, progreso);
+        if (!registrado) {
+            throw new ConflictoException("Ya hay una importación en curso para el archivo: " + archivo);
+        }
+        ejecutorImportaciones.submit(() -> ejecutar(ruta, progreso));
+        return progreso.aResponse();
+    }
+
+    /**
+     * Obtiene el progreso de la importación de un archivo.
+     *
+     * @param archivo Nombre del archivo CSV importado.
+     * @return El progreso de la importación.
+     * @throws ResourceNotFoundException si no hay ninguna importación registrada para el archivo.
+     */
+    public ImportacionResponse obtenerProgreso(String archivo) {
+        Progreso progreso = importaciones.get(archivo);
+        if (progreso == null) {
+            throw new ResourceNotFoundException("No hay ninguna importación para el archivo: " + archivo);
+        }
+        return progreso.aResponse();
+    }
+
+    /**
+     * Importa el archivo indicado registrando el avance en el progreso recibido.
+     * Nunca lanza excepciones: los errores dejan la importación en estado {@link EstadoImportacion#FALLIDA}.
+     *
+     * @param ruta Ruta del archivo CSV.
+     * @param progreso Progreso de la importación.
+     */
+    void ejecutar(Path ruta, Progreso progreso) {
+        Path checkpoint = Paths.get(ruta + ".checkpoint");
+        Path archivoErrores = Paths.get(ruta + ".errores");
+        progreso.archivoErrores = archivoErrores.getFileName().toString();
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8);
+             BufferedWriter errores = Files.newBufferedWriter(archivoErrores, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            long ultimaConfirmada = leerCheckpoint(checkpoint);
+            progreso.ultimaFilaConfirmada.set(ultimaConfirmada);
+            logger.info("Importando clientes desde {} a partir de la fila {}", ruta, ultimaConfirmada + 1);
+
+            String cabecera = lector.readLine();
+            if (cabecera == null) {
+                throw new IllegalArgumentException("El archivo está vacío.");
+            }
+            Map<String, Integer> indices = indicesColumnas(LectorCsv.parsear(cabecera));
+
+            Deque<Lote> enVuelo = new ArrayDeque<>();
+            Set<String> identificacionesEnVuelo = new HashSet<>();
+            Lote lote = new Lote();
+            long numeroFila = 0;
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                numeroFila++;
+                if (numeroFila <= ultimaConfirmada) {
+                    continue;
+                }
+                progreso.filasLeidas.incrementAndGet();
+                lote.ultimaFila = numeroFila;
+                try {
+                    lote.filas.add(new Fila(numeroFila, convertir(LectorCsv.parsear(linea), indices)));
+                } catch (IllegalArgumentException | DatosNoValidosException e) {
+                    lote.errores.add(numeroFila + ";" + e.getMessage());
+                }
+                if (lote.filas.size() + lote.errores.size() >= tamanoLote) {
+                    if (enVuelo.size() >= lotesEnVuelo) {
+                        confirmar(enVuelo.poll(), identificacionesEnVuelo, checkpoint, errores, progreso);
+                    }
+                    enVuelo.add(despachar(lote, identificacionesEnVuelo));
+                    lote = new Lote();
+                }
+            }
+            if (lote.ultimaFila > 0) {
+                enVuelo.add(despachar(lote, identificacionesEnVuelo));
+            }
+            while (!enVuelo.isEmpty()) {
+                confirmar(enVuelo.poll(), identificacionesEnVuelo, checkpoint, errores, progreso);
+            }
+            progreso.estado = EstadoImportacion.COMPLETADA;
+            logger.info("Importación de {} completada: {} clientes importados, {} filas con error",
+                    ruta, progreso.filasImportadas.get(), progreso.filasConError.get());
+        } catch (Exception e) {
+            logger.error("Error al importar clientes desde {}: {}", ruta, e.getMessage());
+            progreso.mensaje = e.getMessage();
+            progreso.estado = EstadoImportacion.FALLIDA;
+        }
+    }
+
+    /**
+     * Verifica la unicidad de las identificaciones del lote y lanza la encriptación de sus contraseñas
+     * en el pool de hilos de hash.
+     */
+    private Lote despachar(Lote lote, Set<String> identificacionesEnVuelo) {
+        Set<String> existentes = new HashSet<>();
+        if (!lote.filas.isEmpty()) {
+            List<String> identificaciones = lote.filas.stream()
+                    .map(fila -> fila.datos.getIdentificacion())
+                    .collect(Collectors.toList());
+            existentes.addAll(clienteRepository.findIdentificacionesExistentes(identificaciones));
+            existentes.addAll(archivoClientesService.identificacionesArchivadas(identificaciones));
+        }
+        Iterator<Fila> iterador = lote.filas.iterator();
+        while (iterador.hasNext()) {
+            Fila fila = iterador.next();
+            String identificacion = fila.datos.getIdentificacion();
+            if (existentes.contains(identificacion) || !identificacionesEnVuelo.add(identificacion)) {
+                lote.errores.add(fila.numero + ";La identificación ya está en uso.");
+                iterador.remove();
+            }
+        }
+        lote.hashes = CompletableFuture.allOf(lote.filas.stream()
+                .map(fila -> CompletableFuture.runAsync(() ->
+                        fila.contrasena = BCrypt.hashpw(fila.datos.getContrasena(), BCrypt.gensalt()), ejecutorHash))
+                .toArray(CompletableFuture[]::new));
+        return lote;
+    }
+
+    /**
+     * Espera a que terminen las encriptaciones del lote, lo inserta en una sola transacción y registra
+     * las filas con error y el checkpoint.
+     */
+    private void confirmar(Lote lote, Set<String> identificacionesEnVuelo, Path checkpoint, BufferedWriter errores,
+                           Progreso progreso) throws IOException {
+        lote.hashes.join();
+        if (!lote.filas.isEmpty()) {
+            insertar(lote.filas);
+            lote.filas.forEach(fila -> estadisticasClientesService.registrarAlta(new EstadisticasClientesService.Muestra(
+                    fila.datos.getEstado(), fila.datos.getGenero(), fila.datos.getEdad())));
+        }
+        for (String error : lote.errores) {
+            errores.write(error);
+            errores.newLine();
+        }
+        errores.flush();
+        escribirCheckpoint(checkpoint, lote.ultimaFila);
+
+        lote.filas.forEach(fila -> identificacionesEnVuelo.remove(fila.datos.getIdentificacion()));
+        progreso.filasImportadas.addAndGet(lote.filas.size());
+        progreso.filasConError.addAndGet(lote.errores.size());
+        progreso.ultimaFilaConfirmada.set(lote.ultimaFila);
+    }
+
+    /**
+     * Inserta las filas con lotes JDBC, registrando su alta en el feed de cambios en la misma transacción.
+     * Con sharding, las filas se agrupan por shard y cada grupo se inserta en una transacción de su shard; si la
+     * importación se interrumpe entre dos grupos, al reanudarla las filas ya insertadas se rechazan como duplicadas.
+     */
+    private void insertar(List<Fila> filas) {
+        Map<Integer, List<Fila>> porShard = filas.stream()
+                .collect(Collectors.groupingBy(fila -> shardRouter.shardDeIdentificacion(fila.datos.getIdentificacion())));
+        porShard.forEach((shard, grupo) -> shardRouter.enShard(shard, () -> {
+            insertarEnShard(shard, grupo);
+            return null;
+        }));
+    }
+
+    /**
+     * Inserta las filas de un shard y deja programada su auditoría para cuando se confirme la transacción.
+     * Si un clienteId generado colisiona con uno existente se regeneran los del grupo y se reintenta.
+     */
+    private void insertarEnShard(int shard, List<Fila> filas) {
+        for (int intento = 1; ; intento++) {
+            filas.forEach(fila -> fila.clienteId = shardRouter.generarClienteId(shard));
+            try {
+                Timestamp ahora = Timestamp.from(Instant.now());
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERTAR_CLIENTE, filas, filas.size(), (ps, fila) -> {
+                        ps.setString(1, fila.datos.getNombre());
+                        ps.setString(2, fila.datos.getGenero());
+                        ps.setInt(3, fila.datos.getEdad());
+                        ps.setString(4, fila.datos.getIdentificacion());
+                        ps.setString(5, fila.datos.getDireccion());
+                        ps.setString(6, fila.datos.getTelefono());
+                        ps.setString(7, fila.clienteId);
+                        ps.setString(8, fila.contrasena);
+                        ps.setBoolean(9, fila.datos.getEstado());
+                        ps.setTimestamp(10, ahora);
+                    });
+                    // Igual que en las altas individuales: las secuencias del feed se asignan con el bloqueo tomado.
+                    jdbcTemplate.queryForObject(BLOQUEAR_SECUENCIA, Integer.class);
+                    jdbcTemplate.batchUpdate(INSERTAR_CAMBIO, filas, filas.size(), (ps, fila) -> {
+                        ps.setTimestamp(1, ahora);
+                        ps.setString(2, fila.clienteId);
+                    });
+                    auditoriaClientesService.registrar(altas(filas, ahora.toInstant()));
+                });
+                return;
+            } catch (DuplicateKeyException e) {
+                if (intento >= REINTENTOS_CLIENTE_ID) {
+                    throw e;
+                }
+                logger.warn("Colisión de clienteId al insertar un lote, reintentando ({}/{})", intento, REINTENTOS_CLIENTE_ID);
+            }
+        }
+    }
+
+    /**
+     * Lee las altas recién insertadas del lote (necesitan el ID asignado por la base de datos) para auditarlas.
+     */
+    private List<CambioCliente> altas(List<Fila> filas, Instant fecha) {
+        String marcadores = String.join(", ", Collections.nCopies(filas.size(), "?"));
+        return jdbcTemplate.query(ALTAS_DEL_LOTE + marcadores + ")",
+                (rs, numero) -> new CambioCliente(null, TipoCambio.CREADO, rs.getLong("id"), rs.getString("cliente_id"),
+                        rs.getString("nombre"), rs.getString("identificacion"), rs.getBoolean("estado"), fecha),
+                filas.stream().map(fila -> fila.clienteId).toArray());
+    }
+
+    /**
+     * Convierte los campos de una fila en un DTO y lo valida con las mismas reglas que la creación de clientes.
+     *
+     * @throws IllegalArgumentException si la fila no es válida.
+     * @throws DatosNoValidosException si la fila no cumple las reglas de negocio de {@link ClienteService}.
+     */
+    private ClienteRequestDto convertir(List<String> campos, Map<String, Integer> indices) {
+        int columnasRequeridas = Collections.max(indices.values()) + 1;
+        if (campos.size() < columnasRequeridas) {
+            throw new IllegalArgumentException("La fila tiene " + campos.size() + " columnas y se esperaban " + columnasRequeridas + ".");
+        }
+        int edad;
+        try {
+            edad = Integer.parseInt(campo(campos, indices, "edad"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La edad no es un número válido.");
+        }
+        ClienteRequestDto dto = new ClienteRequestDto(campo(campos, indices, "nombre"), campo(campos, indices, "genero"),
+                edad, campo(campos, indices, "identificacion"), campo(campos, indices, "direccion"),
+                campo(campos, indices, "telefono"), campo(campos, indices, "contrasena"),
+                estado(campo(campos, indices, "estado")));
+
+        Set<ConstraintViolation<ClienteRequestDto>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            throw new IllegalArgumentException(violaciones.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining(", ")));
+        }
+        clienteService.validarDatosCliente(dto);
+        return dto;
+    }
+
+    private static Boolean estado(String valor) {
+        if (valor.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
+        }
+        if (valor.equalsIgnoreCase("false")) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("El estado debe ser true o false.");
+    }
+
+    private String campo(List<String> campos, Map<String, Integer> indices, String columna) {
+        return campos.get(indices.get(columna)).trim();
+    }
+
+    private Map<String, Integer> indicesColumnas(List<String> cabecera) {
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < cabecera.size(); i++) {
+            indices.put(cabecera.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> faltantes = COLUMNAS.stream().filter(c -> !indices.containsKey(c)).collect(Collectors.toList());
+        if (!faltantes.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en la cabecera: " + faltantes);
+        }
+        indices.keySet().retainAll(COLUMNAS);
+        return indices;
+    }
+
+    private Path resolverArchivo(String archivo) {
+        if (archivo == null || !NOMBRE_ARCHIVO.matcher(archivo).matches()) {
+            throw new DatosNoValidosException("Nombre de archivo de importación no válido.");
+        }
+        return directorio.resolve(archivo);
+    }
+
+    private long leerCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+    }
+
+    private void escribirCheckpoint(Path checkpoint, long fila) {
+        try {
+            Path temporal = Paths.get(checkpoint + ".tmp");
+            Files.writeString(temporal, Long.toString(fila), StandardCharsets.UTF_8);
+            Files.move(temporal, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el checkpoint de la importación.", e);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutorImportaciones.shutdownNow();
+        ejecutorHash.shutdownNow();
+    }
+
+    /**
+     * Fila válida del CSV pendiente de insertar.
+     */
+    private static final class Fila {
+        private final long numero;
+        private final ClienteRequestDto datos;
+        private volatile String contrasena;
+        private String clienteId;
+
+        private Fila(long numero, ClienteRequestDto datos) {
+            this.numero = numero;
+            this.datos = datos;
+        }
+    }
+
+    /**
+     * Lote de filas leídas, con las filas rechazadas y la encriptación de contraseñas en curso.
+     */
+    private static final class Lote {
+        private final List<Fila> filas = new ArrayList<>();
+        private final List<String> errores = new ArrayList<>();
+        private long ultimaFila;
+        private CompletableFuture<Void> hashes;
+    }
+
+    /**
+     * Progreso mutable de una importación, actualizado por el hilo de importación y leído por las consultas.
+     */
+    static final class Progreso {
+        private final String archivo;
+        private final AtomicLong filasLeidas = new AtomicLong();
+        private final AtomicLong filasImportadas = new AtomicLong();
+        private final AtomicLong filasConError = new AtomicLong();
+        private final AtomicLong ultimaFilaConfirmada = new AtomicLong();
+        private volatile EstadoImportacion estado = EstadoImportacion.EN_CURSO;
+        private volatile String archivoErrores;
+        private volatile String mensaje;
+
+        Progreso(String archivo) {
+            this.archivo = archivo;
+        }
+
+        ImportacionResponse aResponse() {
+            return new ImportacionResponse(archivo, estado, filasLeidas.get(), filasImportadas.get(),
+                    filasConError.get(), ultimaFilaConfirmada.get(), archivoErrores, mensaje);
+        }
+    }
+}
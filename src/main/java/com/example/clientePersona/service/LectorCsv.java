@@ -0,0 +1,55 @@
+package com.example.clientePersona.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidad mínima para separar una línea CSV en campos.
+ * Admite campos entre comillas dobles (con comas en su interior) y comillas escapadas como {@code ""}.
+ * Los campos con saltos de línea no están soportados.
+ */
+final class LectorCsv {
+
+    private LectorCsv() {
+    }
+
+    /**
+     * Separa una línea CSV en sus campos.
+     *
+     * @param linea Línea a separar.
+     * @return Lista de campos de la línea, sin las comillas que los delimitan.
+     * @throws IllegalArgumentException si la línea tiene comillas sin cerrar.
+     */
+    static List<String> parsear(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar en la línea.");
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+}
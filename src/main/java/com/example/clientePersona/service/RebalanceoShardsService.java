@@ -0,0 +1,229 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.config.ShardingProperties;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.exception.ConflictoException;
+import com.example.clientePersona.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio que redistribuye los clientes tras agregar shards.
+ * Al crecer el número de shards cambia el shard que corresponde a cada identificación; el rebalanceo recorre en
+ * segundo plano cada shard por lotes y mueve a su nuevo shard los clientes (de la tabla caliente y del archivo)
+ * que ya no le corresponden, conservando su ID y clienteId.
+ * Mientras tanto la aplicación sigue atendiendo: las búsquedas de un cliente que ya no está en su shard de origen
+ * se resuelven consultando todos los shards, y las verificaciones de duplicados siempre consultan todos.
+ * Cada traslado queda en los feeds de cambios: una baja en el del shard de origen y un alta en el del destino,
+ * para que quien sincroniza por shard sepa que el cliente cambió de shard.
+ */
+@Service
+public class RebalanceoShardsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RebalanceoShardsService.class);
+
+    private static final List<String> TABLAS = List.of("personas", "personas_archivo");
+    private static final String BLOQUEAR_SECUENCIA = "SELECT id FROM cambios_clientes_bloqueo WHERE id = 1 FOR UPDATE";
+    private static final String INSERTAR_CAMBIO = "INSERT INTO cambios_clientes (tipo, persona_id, cliente_id, nombre, "
+            + "identificacion, estado, fecha_cambio) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate nuevaTransaccion;
+    private final int tamanoLote;
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+
+    public RebalanceoShardsService(ShardRouter shardRouter, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ShardingProperties shardingProperties) {
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoLote = shardingProperties.getTamanoLoteRebalanceo();
+    }
+
+    /**
+     * Inicia el rebalanceo en segundo plano.
+     *
+     * @throws ConflictoException si el sharding no está habilitado o ya hay un rebalanceo en curso.
+     */
+    public void iniciar() {
+        if (!shardRouter.habilitado()) {
+            throw new ConflictoException("El sharding de clientes no está habilitado.");
+        }
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new ConflictoException("Ya hay un rebalanceo de shards en curso.");
+        }
+        ejecutor.submit(() -> {
+            try {
+                long movidos = rebalancear();
+                logger.info("Rebalanceo de shards terminado: {} clientes movidos", movidos);
+            } catch (RuntimeException e) {
+                logger.error("Error en el rebalanceo de shards", e);
+            } finally {
+                enCurso.set(false);
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} si hay un rebalanceo en curso.
+     */
+    public boolean enCurso() {
+        return enCurso.get();
+    }
+
+    /**
+     * Mueve cada cliente al shard que le corresponde por su identificación.
+     *
+     * @return Número de clientes movidos.
+     */
+    long rebalancear() {
+        long movidos = 0;
+        for (int origen = 0; origen < shardRouter.numeroShards(); origen++) {
+            for (String tabla : TABLAS) {
+                movidos += moverTabla(origen, tabla);
+            }
+        }
+        return movidos;
+    }
+
+    private long moverTabla(int origen, String tabla) {
+        long movidos = 0;
+        long ultimoId = 0;
+        while (true) {
+            long desde = ultimoId;
+            Lote lote = shardRouter.enShard(origen, () -> transactionTemplate.execute(status -> moverLote(origen, tabla, desde)));
+            if (lote.leidos == 0) {
+                return movidos;
+            }
+            movidos += lote.movidos;
+            ultimoId = lote.ultimoId;
+        }
+    }
+
+    /**
+     * Bloquea un lote de clientes del shard de origen, copia a su nuevo shard los que ya no le corresponden
+     * y los elimina del origen. Las modificaciones concurrentes leen el cliente con bloqueo y esperan al traslado,
+     * pero su transacción ya quedó fijada al shard de origen: al terminar el lote no encuentran al cliente y
+     * responden 404, así que deben reintentarse (el reintento lo localiza en su nuevo shard).
+     * La copia usa su propia transacción en el shard de destino y sustituye las copias que dejó un rebalanceo
+     * interrumpido, por lo que puede repetirse. Solo se eliminan del origen los clientes copiados: si el ID ya
+     * pertenece a otro cliente en el destino, el cliente se queda en el origen y se registra el error.
+     * Ambos lados registran el traslado en su feed dentro de la misma transacción que la copia o la eliminación.
+     * La baja se fecha un microsegundo antes que el alta: quien combina los feeds de varios shards por fecha (como
+     * el directorio de {@link SnapshotClientesService}) se queda con el alta aunque lea antes el feed del destino.
+     */
+    private Lote moverLote(int origen, String tabla, long desde) {
+        List<Map<String, Object>> filas = jdbcTemplate.queryForList("SELECT * FROM " + tabla
+                + " WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE", desde, tamanoLote);
+        if (filas.isEmpty()) {
+            return new Lote(0, 0, desde);
+        }
+        Map<Integer, List<Map<String, Object>>> porDestino = filas.stream()
+                .filter(fila -> destino(fila) != origen)
+                .collect(Collectors.groupingBy(this::destino));
+        Instant baja = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Instant alta = baja.plus(1, ChronoUnit.MICROS);
+        List<Map<String, Object>> movidas = new ArrayList<>();
+        porDestino.forEach((destino, grupo) -> movidas.addAll(shardRouter.enShard(destino,
+                () -> nuevaTransaccion.execute(status -> copiar(tabla, grupo, alta)))));
+        if (!movidas.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM " + tabla + " WHERE id = ?",
+                    movidas.stream().map(fila -> new Object[]{fila.get("id")}).toList());
+            registrarCambios(TipoCambio.ELIMINADO, movidas, baja);
+        }
+        long ultimoId = ((Number) filas.get(filas.size() - 1).get("id")).longValue();
+        return new Lote(filas.size(), movidas.size(), ultimoId);
+    }
+
+    /**
+     * @return Las filas de los clientes copiados, que pueden eliminarse del origen.
+     */
+    private List<Map<String, Object>> copiar(String tabla, List<Map<String, Object>> filas, Instant alta) {
+        List<Map<String, Object>> copiados = new ArrayList<>();
+        for (Map<String, Object> fila : filas) {
+            Object id = fila.get("id");
+            List<Map<String, Object>> existentes = jdbcTemplate.queryForList(
+                    "SELECT identificacion, cliente_id FROM " + tabla + " WHERE id = ?", id);
+            if (!existentes.isEmpty()) {
+                if (!mismoCliente(existentes.get(0), fila)) {
+                    logger.error("El cliente con ID {} de {} no se mueve: el ID ya pertenece a otro cliente en el shard {}",
+                            id, tabla, destino(fila));
+                    continue;
+                }
+                // Copia de un rebalanceo interrumpido; el origen pudo modificarse después, así que se reemplaza.
+                jdbcTemplate.update("DELETE FROM " + tabla + " WHERE id = ?", id);
+            }
+            String columnas = String.join(", ", fila.keySet());
+            String valores = String.join(", ", Collections.nCopies(fila.size(), "?"));
+            jdbcTemplate.update("INSERT INTO " + tabla + " (" + columnas + ") VALUES (" + valores + ")",
+                    fila.values().toArray());
+            copiados.add(fila);
+        }
+        if (!copiados.isEmpty()) {
+            registrarCambios(TipoCambio.CREADO, copiados, alta);
+        }
+        return copiados;
+    }
+
+    /**
+     * Registra en el feed del shard de la transacción en curso un cambio por cliente; las bajas, como en
+     * {@link ClienteService}, solo llevan el ID y el clienteId.
+     */
+    private void registrarCambios(TipoCambio tipo, List<Map<String, Object>> filas, Instant fecha) {
+        jdbcTemplate.queryForObject(BLOQUEAR_SECUENCIA, Integer.class);
+        boolean baja = tipo == TipoCambio.ELIMINADO;
+        Timestamp fechaCambio = Timestamp.from(fecha);
+        jdbcTemplate.batchUpdate(INSERTAR_CAMBIO, filas, filas.size(), (ps, fila) -> {
+            ps.setString(1, tipo.name());
+            ps.setObject(2, fila.get("id"), Types.BIGINT);
+            ps.setObject(3, fila.get("cliente_id"), Types.VARCHAR);
+            ps.setObject(4, baja ? null : fila.get("nombre"), Types.VARCHAR);
+            ps.setObject(5, baja ? null : fila.get("identificacion"), Types.VARCHAR);
+            ps.setObject(6, baja ? null : fila.get("estado"), Types.BIT);
+            ps.setTimestamp(7, fechaCambio);
+        });
+    }
+
+    private static boolean mismoCliente(Map<String, Object> existente, Map<String, Object> fila) {
+        return Objects.equals(existente.get("identificacion"), fila.get("identificacion"))
+                && Objects.equals(existente.get("cliente_id"), fila.get("cliente_id"));
+    }
+
+    private int destino(Map<String, Object> fila) {
+        return shardRouter.shardDeIdentificacion((String) fila.get("identificacion"));
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private record Lote(int leidos, int movidos, long ultimoId) {
+    }
+}
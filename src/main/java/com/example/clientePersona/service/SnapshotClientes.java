@@ -0,0 +1,316 @@
+package com.example.clientePersona.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.function.Supplier;
+
+/**
+ * Snapshot binario del directorio de clientes, mapeado en memoria fuera del heap.
+ * Formato del archivo (big-endian):
+ * <pre>
+ * cabecera:  int MAGICO, int VERSION, int numeroRegistros, int numeroShards, long[numeroShards] secuencias
+ * índice ID: numeroRegistros x (long id, int posición), ordenado por id
+ * índice clienteId: numeroRegistros x (int hash del clienteId, int posición), ordenado por hash
+ * registros: long id, byte estado (0 = false, 1 = true, 2 = null) y clienteId, nombre e identificacion
+ *            como (unsigned short longitud, bytes UTF-8); un texto nulo o vacío se guarda con longitud 0
+ * </pre>
+ * Las secuencias son la posición del feed de cambios de cada shard incluida en el snapshot.
+ * Las búsquedas son binarias sobre los índices y solo crean en el heap el registro encontrado; la reescritura
+ * combina el snapshot anterior con los cambios recorriendo ambos en orden de ID.
+ * El archivo está limitado a 2 GB, lo que equivale a decenas de millones de clientes.
+ */
+final class SnapshotClientes {
+
+    static final int MAGICO = 0x434C5331;
+    static final int VERSION = 1;
+
+    private static final int CABECERA = 16;
+    private static final int ENTRADA_ID = 12;
+    private static final int ENTRADA_CLIENTE_ID = 8;
+    private static final byte ESTADO_NULO = 2;
+
+    private final ByteBuffer datos;
+    private final int numeroRegistros;
+    private final long[] secuencias;
+    private final int inicioIndiceId;
+    private final int inicioIndiceClienteId;
+
+    private SnapshotClientes(ByteBuffer datos) {
+        if (datos.getInt(0) != MAGICO || datos.getInt(4) != VERSION) {
+            throw new IllegalStateException("El archivo no es un snapshot de clientes compatible.");
+        }
+        this.datos = datos;
+        this.numeroRegistros = datos.getInt(8);
+        this.secuencias = new long[datos.getInt(12)];
+        for (int i = 0; i < secuencias.length; i++) {
+            secuencias[i] = datos.getLong(CABECERA + i * Long.BYTES);
+        }
+        this.inicioIndiceId = CABECERA + secuencias.length * Long.BYTES;
+        this.inicioIndiceClienteId = inicioIndiceId + numeroRegistros * ENTRADA_ID;
+    }
+
+    /**
+     * Datos de un cliente en el directorio.
+     */
+    record Registro(long id, String clienteId, String nombre, String identificacion, Boolean estado) {
+    }
+
+    /**
+     * Mapea un snapshot existente en modo de solo lectura.
+     *
+     * @throws IllegalStateException si el archivo no tiene el formato esperado.
+     */
+    static SnapshotClientes mapear(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal.
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new SnapshotClientes(datos);
+        }
+    }
+
+    /**
+     * Escribe un snapshot con los registros dados, en cualquier orden.
+     */
+    static void escribir(Path archivo, List<Registro> registros, long[] secuencias) throws IOException {
+        Registro[] porId = registros.toArray(new Registro[0]);
+        Arrays.sort(porId, Comparator.comparingLong(Registro::id));
+        escribir(archivo, () -> Arrays.asList(porId).iterator(), secuencias);
+    }
+
+    /**
+     * Escribe un snapshot en un archivo temporal y lo renombra de forma atómica sobre el destino, de modo que
+     * un snapshot ya mapeado por otro proceso o una escritura interrumpida nunca dejan un archivo a medias.
+     * Los registros se recorren dos veces, ordenados por ID: la primera calcula el tamaño del archivo y la segunda
+     * los escribe directamente en él; el índice de clienteId se ordena dentro del propio archivo.
+     *
+     * @param registrosPorId Proveedor de recorridos de los registros en orden de ID; cada recorrido debe dar los mismos.
+     */
+    static void escribir(Path archivo, Supplier<Iterator<Registro>> registrosPorId, long[] secuencias) throws IOException {
+        int numeroRegistros = 0;
+        long tamanoRegistros = 0;
+        for (Iterator<Registro> registros = registrosPorId.get(); registros.hasNext(); numeroRegistros++) {
+            Registro registro = registros.next();
+            tamanoRegistros += Long.BYTES + 1 + 3 * Short.BYTES + utf8(registro.clienteId()).length
+                    + utf8(registro.nombre()).length + utf8(registro.identificacion()).length;
+        }
+        long tamano = CABECERA + (long) secuencias.length * Long.BYTES
+                + (long) numeroRegistros * (ENTRADA_ID + ENTRADA_CLIENTE_ID) + tamanoRegistros;
+        if (tamano > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El snapshot de clientes supera el tamaño máximo de 2 GB.");
+        }
+        int inicioIndiceId = CABECERA + secuencias.length * Long.BYTES;
+        int inicioIndiceClienteId = inicioIndiceId + numeroRegistros * ENTRADA_ID;
+        int inicioRegistros = inicioIndiceClienteId + numeroRegistros * ENTRADA_CLIENTE_ID;
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+            datos.putInt(0, MAGICO).putInt(4, VERSION).putInt(8, numeroRegistros).putInt(12, secuencias.length);
+            for (int i = 0; i < secuencias.length; i++) {
+                datos.putLong(CABECERA + i * Long.BYTES, secuencias[i]);
+            }
+
+            datos.position(inicioRegistros);
+            Iterator<Registro> registros = registrosPorId.get();
+            for (int i = 0; i < numeroRegistros; i++) {
+                Registro registro = registros.next();
+                int posicion = datos.position();
+                datos.putLong(inicioIndiceId + i * ENTRADA_ID, registro.id());
+                datos.putInt(inicioIndiceId + i * ENTRADA_ID + Long.BYTES, posicion);
+                // Hash en los 32 bits altos y posición en los bajos: la entrada se ordena como un long.
+                datos.putLong(inicioIndiceClienteId + i * ENTRADA_CLIENTE_ID,
+                        ((long) hash(registro.clienteId()) << 32) | (posicion & 0xFFFFFFFFL));
+
+                datos.putLong(registro.id());
+                datos.put(registro.estado() == null ? ESTADO_NULO : (byte) (registro.estado() ? 1 : 0));
+                for (String texto : new String[]{registro.clienteId(), registro.nombre(), registro.identificacion()}) {
+                    byte[] bytes = utf8(texto);
+                    datos.putShort((short) bytes.length);
+                    datos.put(bytes);
+                }
+            }
+            if (registros.hasNext() || datos.position() != tamano) {
+                throw new IllegalStateException("Los registros del snapshot de clientes cambiaron durante la escritura.");
+            }
+            ordenar(datos.slice(inicioIndiceClienteId, numeroRegistros * ENTRADA_CLIENTE_ID).asLongBuffer());
+            datos.force();
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Recorre en orden de ID los registros de este snapshot combinados con cambios posteriores: un cambio
+     * sustituye al registro con su ID y, si es nulo, lo elimina. Los registros se leen del archivo a medida
+     * que se recorren.
+     *
+     * @param cambios Cambios por ID; los valores nulos son eliminaciones.
+     */
+    Iterator<Registro> combinar(SortedMap<Long, Registro> cambios) {
+        return new Iterator<>() {
+            private final Iterator<Map.Entry<Long, Registro>> pendientes = cambios.entrySet().iterator();
+            private Map.Entry<Long, Registro> cambio = pendientes.hasNext() ? pendientes.next() : null;
+            private int indice;
+            private Registro siguiente = avanzar();
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public Registro next() {
+                if (siguiente == null) {
+                    throw new NoSuchElementException();
+                }
+                Registro actual = siguiente;
+                siguiente = avanzar();
+                return actual;
+            }
+
+            private Registro avanzar() {
+                while (indice < numeroRegistros || cambio != null) {
+                    long id = indice < numeroRegistros ? datos.getLong(inicioIndiceId + indice * ENTRADA_ID) : Long.MAX_VALUE;
+                    if (cambio == null || id < cambio.getKey()) {
+                        return leer(datos.getInt(inicioIndiceId + indice++ * ENTRADA_ID + Long.BYTES));
+                    }
+                    if (id == cambio.getKey()) {
+                        indice++;
+                    }
+                    Registro reemplazo = cambio.getValue();
+                    cambio = pendientes.hasNext() ? pendientes.next() : null;
+                    if (reemplazo != null) {
+                        return reemplazo;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    int numeroRegistros() {
+        return numeroRegistros;
+    }
+
+    long[] secuencias() {
+        return secuencias.clone();
+    }
+
+    Optional<Registro> buscarPorId(long id) {
+        int bajo = 0;
+        int alto = numeroRegistros - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            long actual = datos.getLong(inicioIndiceId + medio * ENTRADA_ID);
+            if (actual < id) {
+                bajo = medio + 1;
+            } else if (actual > id) {
+                alto = medio - 1;
+            } else {
+                return Optional.of(leer(datos.getInt(inicioIndiceId + medio * ENTRADA_ID + Long.BYTES)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    Optional<Registro> buscarPorClienteId(String clienteId) {
+        int buscado = hash(clienteId);
+        int bajo = 0;
+        int alto = numeroRegistros;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (datos.getInt(inicioIndiceClienteId + medio * ENTRADA_CLIENTE_ID) < buscado) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        // Varios clienteId pueden compartir hash: se comparan todos los candidatos.
+        for (int i = bajo; i < numeroRegistros && datos.getInt(inicioIndiceClienteId + i * ENTRADA_CLIENTE_ID) == buscado; i++) {
+            Registro registro = leer(datos.getInt(inicioIndiceClienteId + i * ENTRADA_CLIENTE_ID + Integer.BYTES));
+            if (clienteId.equals(registro.clienteId())) {
+                return Optional.of(registro);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Registro leer(int posicion) {
+        long id = datos.getLong(posicion);
+        byte estado = datos.get(posicion + Long.BYTES);
+        int[] cursor = {posicion + Long.BYTES + 1};
+        String clienteId = leerTexto(cursor);
+        String nombre = leerTexto(cursor);
+        String identificacion = leerTexto(cursor);
+        return new Registro(id, clienteId, nombre, identificacion, estado == ESTADO_NULO ? null : estado == 1);
+    }
+
+    private String leerTexto(int[] cursor) {
+        int longitud = Short.toUnsignedInt(datos.getShort(cursor[0]));
+        byte[] bytes = new byte[longitud];
+        datos.get(cursor[0] + Short.BYTES, bytes);
+        cursor[0] += Short.BYTES + longitud;
+        return longitud == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ordena en su sitio (heapsort), sin memoria adicional, las entradas del índice de clienteId.
+     */
+    private static void ordenar(LongBuffer entradas) {
+        int cantidad = entradas.limit();
+        for (int i = cantidad / 2 - 1; i >= 0; i--) {
+            hundir(entradas, i, cantidad);
+        }
+        for (int fin = cantidad - 1; fin > 0; fin--) {
+            long mayor = entradas.get(0);
+            entradas.put(0, entradas.get(fin));
+            entradas.put(fin, mayor);
+            hundir(entradas, 0, fin);
+        }
+    }
+
+    private static void hundir(LongBuffer entradas, int posicion, int cantidad) {
+        long valor = entradas.get(posicion);
+        int hijo;
+        while ((hijo = 2 * posicion + 1) < cantidad) {
+            if (hijo + 1 < cantidad && entradas.get(hijo + 1) > entradas.get(hijo)) {
+                hijo++;
+            }
+            if (entradas.get(hijo) <= valor) {
+                break;
+            }
+            entradas.put(posicion, entradas.get(hijo));
+            posicion = hijo;
+        }
+        entradas.put(posicion, valor);
+    }
+
+    private static byte[] utf8(String texto) {
+        byte[] bytes = texto == null ? new byte[0] : texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Texto demasiado largo para el snapshot de clientes.");
+        }
+        return bytes;
+    }
+
+    private static int hash(String clienteId) {
+        return clienteId == null ? 0 : clienteId.hashCode();
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.CambioCliente;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.repository.CambioClienteRepository;
+import com.example.clientePersona.sharding.ShardRouter;
+import com.example.common.dto.response.ClienteResponseDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Servicio que mantiene un directorio de clientes de solo lectura (ID, clienteId, nombre, identificación y estado)
+ * para responder las búsquedas por ID y clienteId sin consultar la base de datos.
+ * El directorio se guarda en un snapshot binario mapeado en memoria ({@link SnapshotClientes}), que se reescribe
+ * periódicamente y al detener la aplicación. Al arrancar se mapea el último snapshot y en segundo plano se
+ * aplican los cambios del feed posteriores a sus secuencias. Los cambios pendientes de escribir se guardan en el
+ * heap (incluidas las eliminaciones) y tienen prioridad sobre el snapshot.
+ * La reconciliación avanza por el feed de cada shard confiando en que sus secuencias se hacen visibles en orden
+ * (cada transacción bloquea la secuencia del feed hasta confirmarse), así que nunca deja atrás un cambio aún sin
+ * confirmar. Los cambios hechos por otras
+ * instancias se ven con el retraso de la reconciliación; si la última terminada empezó hace más de
+ * {@code clientes.snapshot.retraso-maximo} (también antes de la primera), el directorio no responde y las
+ * búsquedas van a la base de datos.
+ */
+@Service
+public class SnapshotClientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotClientesService.class);
+
+    private static final int TAMANO_PAGINA_CAMBIOS = 1000;
+    private static final String ULTIMA_SECUENCIA = "SELECT COALESCE(MAX(secuencia), 0) FROM cambios_clientes";
+    private static final String CLIENTES = "SELECT id, cliente_id, nombre, identificacion, estado FROM personas "
+            + "WHERE tipo_persona = 'Cliente'";
+    private static final String CLIENTES_ARCHIVADOS = "SELECT id, cliente_id, nombre, identificacion, estado "
+            + "FROM personas_archivo";
+    private static final RowMapper<SnapshotClientes.Registro> REGISTRO = (rs, fila) -> new SnapshotClientes.Registro(
+            rs.getLong("id"), rs.getString("cliente_id"), rs.getString("nombre"), rs.getString("identificacion"),
+            rs.getObject("estado") == null ? null : rs.getBoolean("estado"));
+
+    private final CambioClienteRepository cambioClienteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Path archivo;
+    private final long retrasoMaximoNanos;
+    private final ExecutorService ejecutorCarga = Executors.newSingleThreadExecutor();
+
+    private final Map<Long, Entrada> cambios = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsPorClienteId = new ConcurrentHashMap<>();
+    private final AtomicLongArray secuencias;
+    private volatile SnapshotClientes snapshot;
+    /**
+     * Momento (System.nanoTime) en que empezó la última reconciliación terminada; nulo si aún no hubo ninguna.
+     */
+    private volatile Long reconciliadoEn;
+
+    public SnapshotClientesService(CambioClienteRepository cambioClienteRepository, JdbcTemplate jdbcTemplate,
+                                   ShardRouter shardRouter,
+                                   @Value("${clientes.snapshot.archivo:./snapshot/clientes.snap}") String archivo,
+                                   @Value("${clientes.snapshot.retraso-maximo:PT30S}") Duration retrasoMaximo) {
+        this.cambioClienteRepository = cambioClienteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.archivo = Paths.get(archivo).toAbsolutePath().normalize();
+        this.retrasoMaximoNanos = retrasoMaximo.toNanos();
+        this.secuencias = new AtomicLongArray(shardRouter.numeroShards());
+    }
+
+    /**
+     * Estado de un cliente cambiado desde el último snapshot; {@code registro} es nulo si se eliminó.
+     */
+    private record Entrada(SnapshotClientes.Registro registro, Instant fecha) {
+    }
+
+    /**
+     * Mapea el último snapshot al arrancar la aplicación. Si no existe (o no es compatible) se construye en
+     * segundo plano a partir de la base de datos; mientras tanto las búsquedas van a la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (Files.exists(archivo)) {
+            try {
+                SnapshotClientes existente = SnapshotClientes.mapear(archivo);
+                if (existente.secuencias().length == shardRouter.numeroShards()) {
+                    usar(existente);
+                    logger.info("Snapshot de clientes mapeado: {} clientes", existente.numeroRegistros());
+                } else {
+                    logger.warn("El snapshot de clientes corresponde a otro número de shards; se reconstruirá");
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("No se pudo mapear el snapshot de clientes; se reconstruirá: {}", e.getMessage());
+            }
+        }
+        ejecutorCarga.submit(() -> {
+            try {
+                if (snapshot == null) {
+                    construir();
+                }
+                reconciliar();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error al preparar el snapshot de clientes", e);
+            }
+        });
+    }
+
+    /**
+     * Busca un cliente por su ID en el directorio.
+     *
+     * @param id ID del cliente.
+     * @return Un Optional con el cliente, o vacío si no está en el directorio o este no está al día.
+     */
+    public Optional<ClienteResponseDto> buscarPorId(Long id) {
+        SnapshotClientes actual = snapshot;
+        if (actual == null || id == null || !alDia()) {
+            return Optional.empty();
+        }
+        Entrada entrada = cambios.get(id);
+        if (entrada != null) {
+            return Optional.ofNullable(entrada.registro()).map(SnapshotClientesService::aResponse);
+        }
+        return actual.buscarPorId(id).map(SnapshotClientesService::aResponse);
+    }
+
+    /**
+     * Busca un cliente por su clienteId en el directorio.
+     *
+     * @param clienteId clienteId del cliente.
+     * @return Un Optional con el cliente, o vacío si no está en el directorio o este no está al día.
+     */
+    public Optional<ClienteResponseDto> buscarPorClienteId(String clienteId) {
+        SnapshotClientes actual = snapshot;
+        if (actual == null || clienteId == null || !alDia()) {
+            return Optional.empty();
+        }
+        Long id = idsPorClienteId.get(clienteId);
+        Entrada entrada = id == null ? null : cambios.get(id);
+        if (entrada != null) {
+            return Optional.ofNullable(entrada.registro()).map(SnapshotClientesService::aResponse);
+        }
+        return actual.buscarPorClienteId(clienteId).map(SnapshotClientesService::aResponse);
+    }
+
+    /**
+     * Aplica al directorio un cambio de esta instancia una vez confirmada la transacción en curso, sin esperar
+     * a leerlo del feed.
+     *
+     * @param cambio Cambio registrado en el feed.
+     */
+    public void registrar(CambioCliente cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(cambio);
+                }
+            });
+        } else {
+            aplicar(cambio);
+        }
+    }
+
+    /**
+     * Aplica los cambios del feed de cada shard posteriores a la última secuencia aplicada.
+     */
+    @Scheduled(initialDelayString = "${clientes.snapshot.intervalo-reconciliacion:PT5S}",
+            fixedDelayString = "${clientes.snapshot.intervalo-reconciliacion:PT5S}")
+    public synchronized void reconciliar() {
+        if (snapshot == null) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        for (int shard = 0; shard < shardRouter.numeroShards(); shard++) {
+            int origen = shard;
+            List<CambioCliente> pagina;
+            do {
+                long desde = secuencias.get(origen);
+                pagina = shardRouter.enShard(origen, () -> cambioClienteRepository
+                        .findBySecuenciaGreaterThanOrderBySecuenciaAsc(desde, PageRequest.of(0, TAMANO_PAGINA_CAMBIOS)));
+                pagina.forEach(this::aplicar);
+                if (!pagina.isEmpty()) {
+                    secuencias.set(origen, pagina.get(pagina.size() - 1).getSecuencia());
+                }
+            } while (pagina.size() == TAMANO_PAGINA_CAMBIOS);
+        }
+        reconciliadoEn = inicio;
+    }
+
+    /**
+     * Reescribe el snapshot con los cambios acumulados y descarta del heap los que quedaron incluidos.
+     * El snapshot actual y los cambios se combinan en orden de ID directamente en el archivo nuevo, sin reunir
+     * todos los registros en el heap.
+     */
+    @Scheduled(initialDelayString = "${clientes.snapshot.intervalo-escritura:PT5M}",
+            fixedDelayString = "${clientes.snapshot.intervalo-escritura:PT5M}")
+    public synchronized void guardar() {
+        SnapshotClientes actual = snapshot;
+        if (actual == null || cambios.isEmpty()) {
+            return;
+        }
+        // Las secuencias se leen antes que los cambios: lo aplicado después se vuelve a aplicar sin efecto.
+        long[] incluidas = secuenciasActuales();
+        Map<Long, Entrada> copia = new HashMap<>(cambios);
+        TreeMap<Long, SnapshotClientes.Registro> porId = new TreeMap<>();
+        copia.forEach((id, entrada) -> porId.put(id, entrada.registro()));
+        SnapshotClientes nuevo;
+        try {
+            SnapshotClientes.escribir(archivo, () -> actual.combinar(porId), incluidas);
+            nuevo = SnapshotClientes.mapear(archivo);
+        } catch (IOException e) {
+            logger.error("No se pudo escribir el snapshot de clientes", e);
+            return;
+        }
+        snapshot = nuevo;
+        // Solo se descartan las entradas escritas; las que cambiaron mientras tanto siguen pendientes.
+        copia.forEach((id, entrada) -> cambios.remove(id, entrada));
+        idsPorClienteId.values().removeIf(id -> !cambios.containsKey(id));
+        logger.info("Snapshot de clientes escrito: {} clientes", nuevo.numeroRegistros());
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutorCarga.shutdownNow();
+        guardar();
+    }
+
+    /**
+     * Construye el primer snapshot a partir de las tablas de clientes de todos los shards.
+     */
+    private void construir() throws IOException {
+        long[] desde = shardRouter.enTodos(shard -> jdbcTemplate.queryForObject(ULTIMA_SECUENCIA, Long.class))
+                .stream().mapToLong(Long::longValue).toArray();
+        List<SnapshotClientes.Registro> registros = new ArrayList<>();
+        shardRouter.enTodos(shard -> {
+            List<SnapshotClientes.Registro> delShard = new ArrayList<>(jdbcTemplate.query(CLIENTES, REGISTRO));
+            delShard.addAll(jdbcTemplate.query(CLIENTES_ARCHIVADOS, REGISTRO));
+            return delShard;
+        }).forEach(registros::addAll);
+        SnapshotClientes.escribir(archivo, registros, desde);
+        usar(SnapshotClientes.mapear(archivo));
+        logger.info("Snapshot de clientes construido: {} clientes", registros.size());
+    }
+
+    private void usar(SnapshotClientes nuevo) {
+        long[] incluidas = nuevo.secuencias();
+        for (int shard = 0; shard < incluidas.length; shard++) {
+            secuencias.set(shard, incluidas[shard]);
+        }
+        snapshot = nuevo;
+    }
+
+    private void aplicar(CambioCliente cambio) {
+        SnapshotClientes.Registro registro = cambio.getTipo() == TipoCambio.ELIMINADO ? null
+                : new SnapshotClientes.Registro(cambio.getPersonaId(), cambio.getClienteId(), cambio.getNombre(),
+                cambio.getIdentificacion(), cambio.getEstado());
+        cambios.merge(cambio.getPersonaId(), new Entrada(registro, cambio.getFechaCambio()),
+                (actual, nueva) -> nueva.fecha().isBefore(actual.fecha()) ? actual : nueva);
+        idsPorClienteId.put(cambio.getClienteId(), cambio.getPersonaId());
+    }
+
+    private boolean alDia() {
+        Long inicio = reconciliadoEn;
+        return inicio != null && System.nanoTime() - inicio < retrasoMaximoNanos;
+    }
+
+    private long[] secuenciasActuales() {
+        long[] actuales = new long[secuencias.length()];
+        for (int shard = 0; shard < actuales.length; shard++) {
+            actuales[shard] = secuencias.get(shard);
+        }
+        return actuales;
+    }
+
+    private static ClienteResponseDto aResponse(SnapshotClientes.Registro registro) {
+        return new ClienteResponseDto(registro.clienteId(), registro.nombre(), registro.identificacion(), registro.estado());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.clientePersona.sharding;
+
+/**
+ * Shard al que se dirigen las conexiones obtenidas por el hilo actual.
+ * Lo lee {@link ShardRoutingDataSource} al abrir una conexión; por defecto es el shard 0.
+ */
+public final class ContextoShard {
+
+    private static final ThreadLocal<Integer> SHARD = ThreadLocal.withInitial(() -> 0);
+
+    private ContextoShard() {
+    }
+
+    public static int actual() {
+        return SHARD.get();
+    }
+
+    static void establecer(int shard) {
+        SHARD.set(shard);
+    }
+}
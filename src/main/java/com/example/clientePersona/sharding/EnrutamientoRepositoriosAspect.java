@@ -0,0 +1,272 @@
+package com.example.clientePersona.sharding;
+
+import com.example.clientePersona.entity.Cliente;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Capa de sharding bajo {@code ClienteRepository} y {@code ClienteArchivadoRepository}.
+ * Cada llamada se dirige al shard que corresponde:
+ * <ul>
+ *     <li>Búsquedas por ID o clienteId: al shard de origen codificado en el valor y, si el cliente no está allí
+ *     (fue movido por un rebalanceo), a todos los shards en paralelo.</li>
+ *     <li>Altas: al shard de la identificación, asignando un clienteId con el prefijo del shard.</li>
+ *     <li>Listados, conteos y verificaciones de duplicados: a todos los shards en paralelo, uniendo los resultados.
+ *     Los listados ordenados o paginados se ordenan y recortan en memoria tras unir los de cada shard.</li>
+ *     <li>Eliminaciones y referencias por ID: al shard en el que está el cliente.</li>
+ *     <li>Operaciones sobre varias entidades o IDs: agrupadas por shard, una llamada por shard; fuera de una
+ *     transacción, porque dentro de ella solo puede usarse un shard.</li>
+ *     <li>Consultas por {@code Example}: no se admiten.</li>
+ * </ul>
+ * Dentro de una transacción, la conexión queda fijada al shard de su primera sentencia; por eso, una búsqueda por
+ * ID dentro de una transacción localiza antes el shard real del cliente (tabla caliente o archivo).
+ * Con un único shard las llamadas pasan sin cambios.
+ */
+@Aspect
+@Component
+public class EnrutamientoRepositoriosAspect {
+
+    private static final String UBICAR_CLIENTE = "SELECT (SELECT COUNT(*) FROM personas WHERE id = ?) "
+            + "+ (SELECT COUNT(*) FROM personas_archivo WHERE id = ?)";
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate soloLectura;
+
+    public EnrutamientoRepositoriosAspect(ShardRouter shardRouter, JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+    }
+
+    @Around("target(com.example.clientePersona.repository.ClienteRepository) "
+            + "|| target(com.example.clientePersona.repository.ClienteArchivadoRepository)")
+    public Object enrutar(ProceedingJoinPoint llamada) throws Throwable {
+        if (!shardRouter.habilitado()) {
+            return llamada.proceed();
+        }
+        Object[] argumentos = llamada.getArgs();
+        String metodo = llamada.getSignature().getName();
+        if (argumentos.length > 0 && argumentos[0] instanceof Example) {
+            throw new UnsupportedOperationException("Las consultas por Example no se admiten con sharding: " + metodo);
+        }
+        return switch (metodo) {
+            case "findById", "buscarPorIdParaModificar" -> buscarPorId(llamada, (Long) argumentos[0]);
+            case "findByClienteId" ->
+                    buscarEnOrigen(llamada, shardRouter.shardDeClienteId((String) argumentos[0]));
+            case "save", "saveAndFlush" -> guardar(llamada, argumentos[0]);
+            case "saveAll", "saveAllAndFlush" -> porShard(llamada, (Iterable<?>) argumentos[0], this::shardParaGuardar);
+            case "delete" -> enShardDeEntidad(llamada, argumentos[0]);
+            case "deleteById", "getReferenceById", "getById", "getOne" ->
+                    shardRouter.enShard(ubicar((Long) argumentos[0]), () -> proceder(llamada));
+            case "deleteAll", "deleteAllInBatch" -> argumentos.length == 0
+                    ? shardRouter.enTodos(shard -> proceder(llamada))
+                    : porShard(llamada, (Iterable<?>) argumentos[0], this::shardDeEntidad);
+            case "deleteAllById", "deleteAllByIdInBatch" ->
+                    porShard(llamada, (Iterable<?>) argumentos[0], id -> ubicar((Long) id));
+            case "existsById", "existsByIdentificacion" -> shardRouter.enTodos(shard -> (Boolean) proceder(llamada))
+                    .contains(Boolean.TRUE);
+            case "count" -> shardRouter.enTodos(shard -> (Long) proceder(llamada)).stream()
+                    .mapToLong(Long::longValue)
+                    .sum();
+            case "findIdentificacionesExistentes", "findAllById" -> unirListas(llamada);
+            case "findAll" -> buscarTodos(llamada, argumentos);
+            case "contarPorEstadoGeneroYEdad" -> unirStreams(llamada);
+            default -> llamada.proceed();
+        };
+    }
+
+    private Object buscarPorId(ProceedingJoinPoint llamada, Long id) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return buscarEnOrigen(llamada, shardRouter.shardDeId(id));
+        }
+        return shardRouter.enShard(ubicar(id), () -> proceder(llamada));
+    }
+
+    /**
+     * Localiza el shard en el que está el cliente, en la tabla caliente o en el archivo. Las consultas se hacen
+     * desde los hilos de {@link ShardRouter#enTodos}, así que no fijan la conexión de la transacción en curso.
+     *
+     * @return El shard del cliente o, si no está en ninguno, su shard de origen (o el 0).
+     */
+    private int ubicar(Long id) {
+        List<Integer> coincidencias = shardRouter.enTodos(shard ->
+                jdbcTemplate.queryForObject(UBICAR_CLIENTE, Integer.class, id, id));
+        for (int shard = 0; shard < coincidencias.size(); shard++) {
+            if (coincidencias.get(shard) > 0) {
+                return shard;
+            }
+        }
+        return shardRouter.shardDeId(id).orElse(0);
+    }
+
+    private Object buscarEnOrigen(ProceedingJoinPoint llamada, OptionalInt origen) {
+        if (origen.isPresent()) {
+            Optional<?> encontrado = shardRouter.enShard(origen.getAsInt(), () -> (Optional<?>) proceder(llamada));
+            if (encontrado.isPresent()) {
+                return encontrado;
+            }
+        }
+        return shardRouter.<Optional<?>>enTodos(shard -> origen.isPresent() && origen.getAsInt() == shard
+                        ? Optional.empty() : (Optional<?>) proceder(llamada))
+                .stream()
+                .filter(Optional::isPresent)
+                .findFirst()
+                .orElse(Optional.empty());
+    }
+
+    private Object guardar(ProceedingJoinPoint llamada, Object entidad) {
+        if (entidad instanceof Cliente cliente && cliente.getId() == null) {
+            return shardRouter.enShard(shardParaGuardar(cliente), () -> proceder(llamada));
+        }
+        return enShardDeEntidad(llamada, entidad);
+    }
+
+    /**
+     * @return El shard de un cliente nuevo, al que se asigna un clienteId con su prefijo, o el de uno existente.
+     */
+    private int shardParaGuardar(Object entidad) {
+        if (entidad instanceof Cliente cliente && cliente.getId() == null) {
+            int shard = shardRouter.shardDeIdentificacion(cliente.getIdentificacion());
+            if (cliente.getClienteId() == null) {
+                cliente.setClienteId(shardRouter.generarClienteId(shard));
+            }
+            return shard;
+        }
+        return shardDeEntidad(entidad);
+    }
+
+    private Object enShardDeEntidad(ProceedingJoinPoint llamada, Object entidad) {
+        return entidad instanceof Cliente
+                ? shardRouter.enShard(shardDeEntidad(entidad), () -> proceder(llamada))
+                : proceder(llamada);
+    }
+
+    /**
+     * @return El shard de origen del ID del cliente o, si el ID no lo codifica (es anterior al sharding), el shard
+     * en el que está. Las entidades que no son clientes van al shard actual.
+     */
+    private int shardDeEntidad(Object entidad) {
+        if (!(entidad instanceof Cliente cliente)) {
+            return ContextoShard.actual();
+        }
+        OptionalInt origen = shardRouter.shardDeId(cliente.getId());
+        return origen.isPresent() ? origen.getAsInt() : ubicar(cliente.getId());
+    }
+
+    /**
+     * Reparte los elementos por shard y repite la llamada en cada shard con los suyos, uniendo los resultados
+     * si la operación devuelve una lista.
+     */
+    private Object porShard(ProceedingJoinPoint llamada, Iterable<?> elementos, ToIntFunction<Object> shardDe) {
+        Map<Integer, List<Object>> grupos = new TreeMap<>();
+        for (Object elemento : elementos) {
+            grupos.computeIfAbsent(shardDe.applyAsInt(elemento), shard -> new ArrayList<>()).add(elemento);
+        }
+        if (grupos.size() > 1 && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Una transacción no puede modificar clientes de varios shards ("
+                    + llamada.getSignature().getName() + ").");
+        }
+        List<Object> resultados = new ArrayList<>();
+        grupos.forEach((shard, grupo) -> {
+            Object resultado = shardRouter.enShard(shard, () -> proceder(llamada, grupo));
+            if (resultado instanceof List<?> lista) {
+                resultados.addAll(lista);
+            }
+        });
+        return resultados;
+    }
+
+    private Object buscarTodos(ProceedingJoinPoint llamada, Object[] argumentos) {
+        if (argumentos.length == 0) {
+            return unirListas(llamada);
+        }
+        if (argumentos[0] instanceof Sort orden) {
+            return ordenar(unirListas(llamada), orden);
+        }
+        Pageable pagina = (Pageable) argumentos[0];
+        if (pagina.isUnpaged()) {
+            return new PageImpl<>(ordenar(unirListas(llamada), pagina.getSort()));
+        }
+        // Cada shard devuelve sus primeros offset + tamaño elementos; la página pedida está entre ellos.
+        Pageable primeros = PageRequest.of(0, (int) pagina.getOffset() + pagina.getPageSize(), pagina.getSort());
+        List<Page<?>> paginas = shardRouter.enTodos(shard -> (Page<?>) proceder(llamada, primeros));
+        List<Object> contenido = ordenar(paginas.stream().<Object>flatMap(p -> p.getContent().stream()).toList(),
+                pagina.getSort());
+        long total = paginas.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(contenido.stream()
+                .skip(pagina.getOffset())
+                .limit(pagina.getPageSize())
+                .toList(), pagina, total);
+    }
+
+    private static List<Object> ordenar(List<Object> elementos, Sort orden) {
+        Comparator<Object> comparador = null;
+        for (Sort.Order criterio : orden) {
+            Comparator<Object> siguiente = comparador(criterio);
+            comparador = comparador == null ? siguiente : comparador.thenComparing(siguiente);
+        }
+        return comparador == null ? elementos : elementos.stream().sorted(comparador).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparador(Sort.Order criterio) {
+        Comparator<Object> ascendente = Comparator.comparing((Object elemento) -> {
+            Object valor = new BeanWrapperImpl(elemento).getPropertyValue(criterio.getProperty());
+            return (Comparable<Object>) (criterio.isIgnoreCase() && valor instanceof String texto ? texto.toLowerCase() : valor);
+        }, Comparator.nullsLast(Comparator.naturalOrder()));
+        return criterio.isAscending() ? ascendente : ascendente.reversed();
+    }
+
+    private List<Object> unirListas(ProceedingJoinPoint llamada) {
+        return shardRouter.enTodos(shard -> (List<?>) proceder(llamada)).stream()
+                .<Object>flatMap(List::stream)
+                .toList();
+    }
+
+    private Stream<Object> unirStreams(ProceedingJoinPoint llamada) {
+        // Los streams de consultas necesitan su transacción abierta, así que cada shard se consume en la suya.
+        return shardRouter.enTodos(shard -> soloLectura.execute(status -> {
+                    try (Stream<?> resultado = (Stream<?>) proceder(llamada)) {
+                        return resultado.<Object>map(fila -> fila).toList();
+                    }
+                })).stream()
+                .flatMap(List::stream);
+    }
+
+    private static Object proceder(ProceedingJoinPoint llamada, Object... argumentos) {
+        try {
+            return argumentos.length == 0 ? llamada.proceed() : llamada.proceed(argumentos);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.clientePersona.sharding;
+
+import com.example.clientePersona.config.ShardingProperties;
+import com.example.clientePersona.entity.Cliente;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Reglas de ubicación de los clientes entre shards.
+ * <ul>
+ *     <li>Un cliente nuevo se guarda en el shard {@code hash(identificacion) mod N}.</li>
+ *     <li>Los IDs autoincrementales de cada shard forman la serie {@code shard + 1 + k * MAXIMO_SHARDS}, por lo que
+ *     el shard de origen se obtiene del propio ID.</li>
+ *     <li>El clienteId lleva como prefijo de dos dígitos el shard de origen.</li>
+ *     <li>Los IDs asignados antes de habilitar el sharding no codifican ningún shard; los shards solo generan IDs
+ *     superiores a ellos.</li>
+ * </ul>
+ * Un cliente puede dejar de estar en su shard de origen tras un rebalanceo; en ese caso la búsqueda en el shard
+ * de origen falla y se recurre a consultar todos los shards.
+ * Con un único shard (configuración por defecto) todas las operaciones se ejecutan directamente.
+ */
+@Component
+public class ShardRouter {
+
+    /**
+     * Número máximo de shards; es el incremento de las series de IDs de cada shard y no puede cambiar.
+     */
+    public static final int MAXIMO_SHARDS = 64;
+
+    private final int numeroShards;
+    private final ExecutorService ejecutor;
+    private volatile long ultimoIdAnterior;
+
+    public ShardRouter(ShardingProperties shardingProperties) {
+        this.numeroShards = Math.max(1, shardingProperties.getShards().size());
+        if (numeroShards > MAXIMO_SHARDS) {
+            throw new IllegalArgumentException("No se admiten más de " + MAXIMO_SHARDS + " shards.");
+        }
+        this.ejecutor = numeroShards > 1 ? Executors.newFixedThreadPool(numeroShards * 2) : null;
+    }
+
+    public boolean habilitado() {
+        return numeroShards > 1;
+    }
+
+    public int numeroShards() {
+        return numeroShards;
+    }
+
+    /**
+     * Registra el mayor ID asignado antes de habilitar el sharding; hasta ese valor los IDs no indican su shard.
+     */
+    public void registrarIdsAnteriores(long ultimoId) {
+        this.ultimoIdAnterior = ultimoId;
+    }
+
+    /**
+     * @return El shard en el que se guarda un cliente nuevo con la identificación dada.
+     */
+    public int shardDeIdentificacion(String identificacion) {
+        return identificacion == null ? 0 : Math.floorMod(identificacion.hashCode(), numeroShards);
+    }
+
+    /**
+     * @return El shard de origen codificado en el ID, o vacío si no corresponde a ningún shard configurado o es
+     * anterior al sharding.
+     */
+    public OptionalInt shardDeId(Long id) {
+        if (id == null || id < 1 || id <= ultimoIdAnterior) {
+            return OptionalInt.empty();
+        }
+        int shard = (int) ((id - 1) % MAXIMO_SHARDS);
+        return shard < numeroShards ? OptionalInt.of(shard) : OptionalInt.empty();
+    }
+
+    /**
+     * @return El shard de origen codificado en el clienteId, o vacío si no tiene prefijo de shard.
+     */
+    public OptionalInt shardDeClienteId(String clienteId) {
+        if (!habilitado() || clienteId == null || clienteId.length() != 10) {
+            return OptionalInt.empty();
+        }
+        try {
+            int shard = Integer.parseInt(clienteId.substring(0, 2));
+            return shard < numeroShards ? OptionalInt.of(shard) : OptionalInt.empty();
+        } catch (NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Genera un clienteId para un cliente nuevo del shard indicado.
+     */
+    public String generarClienteId(int shard) {
+        return habilitado() ? String.format("%02d", shard) + Cliente.generateClienteId() : Cliente.generateClienteId();
+    }
+
+    /**
+     * Ejecuta la operación con las conexiones dirigidas al shard indicado.
+     */
+    public <T> T enShard(int shard, Supplier<T> operacion) {
+        int anterior = ContextoShard.actual();
+        ContextoShard.establecer(shard);
+        try {
+            return operacion.get();
+        } finally {
+            ContextoShard.establecer(anterior);
+        }
+    }
+
+    /**
+     * Ejecuta la operación en todos los shards en paralelo y devuelve los resultados en orden de shard.
+     */
+    public <T> List<T> enTodos(IntFunction<T> operacion) {
+        if (!habilitado()) {
+            return List.of(enShard(0, () -> operacion.apply(0)));
+        }
+        List<CompletableFuture<T>> resultados = new ArrayList<>(numeroShards);
+        for (int shard = 0; shard < numeroShards; shard++) {
+            int destino = shard;
+            resultados.add(CompletableFuture.supplyAsync(() -> enShard(destino, () -> operacion.apply(destino)), ejecutor));
+        }
+        try {
+            return resultados.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (ejecutor != null) {
+            ejecutor.shutdownNow();
+        }
+    }
+}
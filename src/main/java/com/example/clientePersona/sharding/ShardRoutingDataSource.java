@@ -0,0 +1,16 @@
+package com.example.clientePersona.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource que entrega conexiones del shard indicado por {@link ContextoShard}.
+ * Se envuelve en un {@code LazyConnectionDataSourceProxy}, de modo que la conexión de una transacción se obtiene
+ * en su primera sentencia y queda fijada al shard elegido por la capa de sharding para esa sentencia.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ContextoShard.actual();
+    }
+}
@@ -0,0 +1,13 @@
+-- Feed de cambios de clientes. Va después del baseline para que también lo reciban las bases anteriores a Flyway.
+
+CREATE TABLE cambios_clientes (
+    secuencia      BIGINT                                     NOT NULL AUTO_INCREMENT,
+    tipo           ENUM ('CREADO', 'MODIFICADO', 'ELIMINADO') NOT NULL,
+    persona_id     BIGINT                                     NOT NULL,
+    cliente_id     VARCHAR(255)                               NOT NULL,
+    nombre         VARCHAR(255),
+    identificacion VARCHAR(255),
+    estado         BIT,
+    fecha_cambio   DATETIME(6)                                NOT NULL,
+    PRIMARY KEY (secuencia)
+) ENGINE = InnoDB;
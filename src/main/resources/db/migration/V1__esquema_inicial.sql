@@ -0,0 +1,18 @@
+-- Esquema inicial: jerarquía de personas (tabla única), tal como existía antes de Flyway. Las bases que ya la
+-- tenían se registran en esta versión (baseline) y no ejecutan este script, así que no debe crear nada más.
+
+CREATE TABLE personas (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    tipo_persona   VARCHAR(31)  NOT NULL,
+    nombre         VARCHAR(255),
+    genero         VARCHAR(255),
+    edad           INT          NOT NULL,
+    identificacion VARCHAR(255),
+    direccion      VARCHAR(255),
+    telefono       VARCHAR(255),
+    cliente_id     VARCHAR(255),
+    contraseña     VARCHAR(255),
+    estado         BIT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_personas_cliente_id UNIQUE (cliente_id)
+) ENGINE = InnoDB;
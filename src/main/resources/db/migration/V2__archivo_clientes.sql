@@ -0,0 +1,26 @@
+-- Separación de clientes inactivos: fecha de última modificación en la tabla caliente y tabla de archivo.
+
+ALTER TABLE personas ADD COLUMN fecha_modificacion DATETIME(6);
+UPDATE personas SET fecha_modificacion = CURRENT_TIMESTAMP(6) WHERE fecha_modificacion IS NULL;
+
+-- Selección de candidatos a archivar sin recorrer la tabla.
+CREATE INDEX idx_personas_estado_fecha_modificacion ON personas (estado, fecha_modificacion);
+
+CREATE TABLE personas_archivo (
+    id                 BIGINT       NOT NULL,
+    nombre             VARCHAR(255),
+    genero             VARCHAR(255),
+    edad               INT          NOT NULL,
+    identificacion     VARCHAR(255),
+    direccion          VARCHAR(255),
+    telefono           VARCHAR(255),
+    cliente_id         VARCHAR(255) NOT NULL,
+    contraseña         VARCHAR(255) NOT NULL,
+    estado             BIT          NOT NULL,
+    fecha_modificacion DATETIME(6),
+    fecha_archivo      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_personas_archivo_cliente_id UNIQUE (cliente_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_personas_archivo_identificacion ON personas_archivo (identificacion);
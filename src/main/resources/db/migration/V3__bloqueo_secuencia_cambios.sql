@@ -0,0 +1,9 @@
+-- Fila única que serializa la asignación de secuencias del feed de cambios: cada transacción la bloquea justo
+-- antes de insertar sus cambios y la libera al confirmarse, de modo que las secuencias se hacen visibles en
+-- orden y un consumidor nunca avanza más allá de un cambio que todavía no se ha confirmado.
+CREATE TABLE cambios_clientes_bloqueo (
+    id TINYINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO cambios_clientes_bloqueo (id) VALUES (1);
@@ -0,0 +1,3 @@
+-- Verificación de identificación duplicada en altas, ediciones e importaciones.
+-- Va en su propia migración porque las bases existentes se registran en la versión 1 (baseline) y no ejecutan V1.
+CREATE INDEX idx_personas_identificacion ON personas (identificacion);
@@ -0,0 +1,8 @@
+-- Mayor ID de cliente asignado antes de habilitar el sharding. Esos IDs se generaron con incremento 1 y no
+-- siguen la serie de ningún shard, así que no codifican su origen; al habilitar el sharding se registra aquí
+-- (en el shard 0) y todos los shards generan a partir de entonces IDs superiores.
+CREATE TABLE ids_anteriores_sharding (
+    id TINYINT NOT NULL,
+    ultimo_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
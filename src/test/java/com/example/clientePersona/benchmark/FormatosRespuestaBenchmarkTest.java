@@ -0,0 +1,84 @@
+package com.example.clientePersona.benchmark;
+
+import com.example.clientePersona.response.ClientesColumnarResponse;
+import com.example.common.dto.response.ClienteResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara bytes y tiempo de CPU por respuesta de 10.000 clientes en cada formato soportado.
+ * Se ejecuta con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class FormatosRespuestaBenchmarkTest {
+
+    private static final int FILAS = 10_000;
+    private static final int CALENTAMIENTO = 20;
+    private static final int ITERACIONES = 50;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private List<ClienteResponseDto> clientes;
+
+    @BeforeEach
+    public void setUp() {
+        clientes = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            clientes.add(new ClienteResponseDto(String.format("%08d", i), "Cliente de prueba " + i,
+                    String.valueOf(10_000_000 + i), i % 3 != 0));
+        }
+    }
+
+    @Test
+    public void testBytesYCpuPorFormato() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        CBORMapper cbor = new CBORMapper();
+        SmileMapper smile = new SmileMapper();
+
+        long bytesJson = medir("JSON", json, clientes);
+        medir("JSON columnar", json, ClientesColumnarResponse.de(clientes));
+        long bytesCbor = medir("CBOR", cbor, clientes);
+        long bytesSmile = medir("Smile", smile, clientes);
+
+        assertTrue(bytesCbor < bytesJson);
+        assertTrue(bytesSmile < bytesJson);
+    }
+
+    private long medir(String formato, ObjectMapper mapper, Object respuesta) throws IOException {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            mapper.writeValueAsBytes(respuesta);
+        }
+        byte[] bytes = null;
+        long inicio = threadMXBean.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            bytes = mapper.writeValueAsBytes(respuesta);
+        }
+        long cpuMicros = (threadMXBean.getCurrentThreadCpuTime() - inicio) / ITERACIONES / 1_000;
+
+        System.out.printf("%-14s bytes=%9d gzip=%8d cpu=%7d us/respuesta%n",
+                formato, bytes.length, gzip(bytes), cpuMicros);
+        return bytes.length;
+    }
+
+    private int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(bytes);
+        }
+        return salida.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.clientePersona.benchmark;
+
+import com.example.clientePersona.controller.ClienteController;
+import com.example.clientePersona.exception.GlobalExceptionHandler;
+import com.example.clientePersona.exception.IdentificacionDuplicadaException;
+import com.example.clientePersona.exception.ResourceNotFoundException;
+import com.example.clientePersona.service.ClienteService;
+import com.example.clientePersona.service.EstadisticasClientesService;
+import com.example.clientePersona.service.IdempotenciaService;
+import com.example.clientePersona.service.ImportacionClientesService;
+import com.example.clientePersona.service.RebalanceoShardsService;
+import com.example.common.dto.request.ClienteRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Compara el rendimiento de las respuestas 404 y 400 cuando la excepción de dominio captura la traza de la pila
+ * (como antes) y cuando no la captura. Las solicitudes recorren el DispatcherServlet hasta
+ * {@link GlobalExceptionHandler}, de modo que la excepción se crea con la profundidad de pila de una petición real.
+ * Se ejecuta con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class RespuestasErrorBenchmarkTest {
+
+    private static final int CALENTAMIENTO = 5_000;
+    private static final int ITERACIONES = 20_000;
+
+    // Conserva la última traza capturada para que la JVM no descarte su construcción.
+    private static volatile RuntimeException ultimaTraza;
+
+    private final ClienteService clienteService = mock(ClienteService.class);
+
+    private MockMvc mockMvc;
+    private String cuerpoCliente;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ClienteController clienteController = new ClienteController(clienteService,
+                mock(ImportacionClientesService.class), mock(IdempotenciaService.class),
+                mock(EstadisticasClientesService.class), mock(RebalanceoShardsService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(clienteController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        cuerpoCliente = new ObjectMapper().writeValueAsString(new ClienteRequestDto("Carlos Fernández", "Masculino",
+                28, "10948075", "Avenida Siempre Viva 742", "5556789", "contrasena123", true));
+    }
+
+    @Test
+    public void testRendimientoNoEncontrado() throws Exception {
+        when(clienteService.obtenerClientePorId(anyLong())).thenAnswer(invocation -> {
+            throw conTraza(new ResourceNotFoundException("Cliente no encontrado con el ID: 1"));
+        });
+        double antes = medir("404 con traza", get("/clientes/1"), 404);
+        when(clienteService.obtenerClientePorId(anyLong())).thenAnswer(invocation -> {
+            throw new ResourceNotFoundException("Cliente no encontrado con el ID: 1");
+        });
+        double despues = medir("404 sin traza", get("/clientes/1"), 404);
+
+        assertTrue(antes > 0 && despues > 0);
+    }
+
+    @Test
+    public void testRendimientoIdentificacionDuplicada() throws Exception {
+        RequestBuilder solicitud = post("/clientes").contentType(MediaType.APPLICATION_JSON).content(cuerpoCliente);
+
+        when(clienteService.crearCliente(any())).thenAnswer(invocation -> {
+            throw conTraza(new IdentificacionDuplicadaException("La identificación ya está en uso."));
+        });
+        double antes = medir("400 con traza", solicitud, 400);
+        when(clienteService.crearCliente(any())).thenAnswer(invocation -> {
+            throw new IdentificacionDuplicadaException("La identificación ya está en uso.");
+        });
+        double despues = medir("400 sin traza", solicitud, 400);
+
+        assertTrue(antes > 0 && despues > 0);
+    }
+
+    /**
+     * Reproduce el coste que tenían las excepciones de dominio al construirse con {@code super(message)}:
+     * se captura la pila completa de la petición antes de lanzar la excepción.
+     */
+    private static <T extends RuntimeException> T conTraza(T excepcion) {
+        ultimaTraza = new RuntimeException(excepcion.getMessage());
+        return excepcion;
+    }
+
+    private double medir(String caso, RequestBuilder solicitud, int estadoEsperado) throws Exception {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            mockMvc.perform(solicitud);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            int estado = mockMvc.perform(solicitud).andReturn().getResponse().getStatus();
+            assertEquals(estadoEsperado, estado);
+        }
+        double porSegundo = ITERACIONES / ((System.nanoTime() - inicio) / 1e9);
+
+        System.out.printf("%-14s %,10.0f respuestas/s%n", caso, porSegundo);
+        return porSegundo;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.clientePersona.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las migraciones de Flyway sobre una base H2 (modo MySQL) con el esquema anterior a Flyway.
+ */
+public class MigracionesFlywayTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migraciones_" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void testMigrar_BaseAnteriorAFlywayRecibeLasTablasNuevas() {
+        // Arrange
+        jdbcTemplate.execute("CREATE TABLE personas (id BIGINT NOT NULL AUTO_INCREMENT, tipo_persona VARCHAR(31) NOT NULL, "
+                + "nombre VARCHAR(255), genero VARCHAR(255), edad INT NOT NULL, identificacion VARCHAR(255), "
+                + "direccion VARCHAR(255), telefono VARCHAR(255), cliente_id VARCHAR(255), contraseña VARCHAR(255), "
+                + "estado BIT, PRIMARY KEY (id), CONSTRAINT uk_personas_cliente_id UNIQUE (cliente_id))");
+        jdbcTemplate.update("INSERT INTO personas (tipo_persona, nombre, edad, identificacion, cliente_id, contraseña, estado) "
+                + "VALUES ('Cliente', 'Ana Torres', 30, '1234567890', '0012345678', 'x', TRUE)");
+
+        // Act
+        ShardingConfig.migrar(dataSource);
+
+        // Assert
+        assertEquals(0, contar("cambios_clientes"));
+        assertEquals(1, contar("cambios_clientes_bloqueo"));
+        assertEquals(0, contar("personas_archivo"));
+        assertEquals(0, contar("ids_anteriores_sharding"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM personas WHERE cliente_id = '0012345678' AND fecha_modificacion IS NOT NULL", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"version\" = '1' AND \"type\" = 'SQL'", Integer.class));
+    }
+
+    @Test
+    public void testMigrar_BaseVaciaEjecutaTodasLasMigraciones() {
+        // Act
+        ShardingConfig.migrar(dataSource);
+
+        // Assert
+        assertEquals(0, contar("personas"));
+        assertEquals(0, contar("cambios_clientes"));
+        assertEquals(1, contar("cambios_clientes_bloqueo"));
+    }
+
+    private int contar(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Integer.class);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.clientePersona.config;
+
+import com.example.clientePersona.entity.ClienteArchivado;
+import com.example.clientePersona.entity.Persona;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.response.CambioClienteResponse;
+import com.example.clientePersona.response.ClientesColumnarResponse;
+import com.example.clientePersona.response.EstadisticasClientesResponse;
+import com.example.common.dto.response.ClienteResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NativeHintsConfigTest {
+
+    @Test
+    public void testRegistraLasClasesDeLosPaquetes() {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new NativeHintsConfig.ClientePersonaRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        for (Class<?> clase : new Class<?>[]{Persona.class, ClienteArchivado.class, TipoCambio.class,
+                EstadisticasClientesResponse.class, CambioClienteResponse.class, ClientesColumnarResponse.class,
+                ClienteResponseDto.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(clase).test(hints), clase.getName());
+        }
+    }
+}
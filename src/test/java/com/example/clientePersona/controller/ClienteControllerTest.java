@@ -1,8 +1,16 @@
 package com.example.clientePersona.controller;
 
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.exception.ConflictoException;
 import com.example.clientePersona.exception.IdentificacionDuplicadaException;
 import com.example.clientePersona.exception.ResourceNotFoundException;
+import com.example.clientePersona.response.CambioClienteResponse;
+import com.example.clientePersona.response.ClientesColumnarResponse;
 import com.example.clientePersona.service.ClienteService;
+import com.example.clientePersona.service.EstadisticasClientesService;
+import com.example.clientePersona.service.IdempotenciaService;
+import com.example.clientePersona.service.ImportacionClientesService;
+import com.example.clientePersona.service.RebalanceoShardsService;
 import com.example.common.dto.request.ClienteRequestDto;
 import com.example.common.dto.response.ClienteResponseDto;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +21,10 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +37,18 @@ public class ClienteControllerTest {
     @Mock
     private ClienteService clienteService;
 
+    @Mock
+    private ImportacionClientesService importacionClientesService;
+
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    @Mock
+    private EstadisticasClientesService estadisticasClientesService;
+
+    @Mock
+    private RebalanceoShardsService rebalanceoShardsService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -48,6 +70,39 @@ public class ClienteControllerTest {
         assertEquals("Carlos Fernández", response.getBody().get(0).getNombre());
     }
 
+    @Test
+    public void testGetAllClientesColumnar() {
+        // Arrange
+        ClienteResponseDto clienteResponseDto = new ClienteResponseDto("00000001", "Carlos Fernández", "10948075", true);
+        when(clienteService.getAllClientes()).thenReturn(Collections.singletonList(clienteResponseDto));
+
+        // Act
+        ResponseEntity<ClientesColumnarResponse> response = clienteController.getAllClientesColumnar();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(List.of("clienteId", "nombre", "identificacion", "estado"), response.getBody().getColumnas());
+        assertArrayEquals(new Object[]{"00000001", "Carlos Fernández", "10948075", true}, response.getBody().getFilas().get(0));
+    }
+
+    @Test
+    public void testGetCambiosClientes() {
+        // Arrange
+        CambioClienteResponse tombstone = new CambioClienteResponse(8L, TipoCambio.ELIMINADO, 1L, "00000001",
+                null, null, null, Instant.now());
+        when(clienteService.obtenerCambiosDesde(7L, 100, 0)).thenReturn(Collections.singletonList(tombstone));
+
+        // Act
+        ResponseEntity<List<CambioClienteResponse>> response = clienteController.getCambiosClientes(7L, 100, 0);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().size());
+        assertEquals(TipoCambio.ELIMINADO, response.getBody().get(0).getTipo());
+    }
+
     @Test
     public void testGetClienteById_Success() {
         // Arrange
@@ -75,7 +130,7 @@ public class ClienteControllerTest {
         when(clienteService.crearCliente(requestDto)).thenReturn(responseDto);
 
         // Act
-        ResponseEntity<String> response = clienteController.createCliente(requestDto);
+        ResponseEntity<String> response = clienteController.createCliente(null, requestDto);
 
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
@@ -90,12 +145,30 @@ public class ClienteControllerTest {
                 "contrasena123", true);
         when(clienteService.crearCliente(requestDto)).thenThrow(new IdentificacionDuplicadaException("La identificación ya está en uso."));
 
+        // Act & Assert
+        IdentificacionDuplicadaException exception = assertThrows(IdentificacionDuplicadaException.class,
+                () -> clienteController.createCliente(null, requestDto));
+        assertEquals("La identificación ya está en uso.", exception.getMessage());
+    }
+
+    @Test
+    public void testCreateCliente_ConIdempotencyKey() {
+        // Arrange
+        ClienteRequestDto requestDto = new ClienteRequestDto("Carlos Fernández", "Masculino", 28, "10948075",
+                "Avenida Siempre Viva 742", "5556789",
+                "contrasena123", true);
+        ClienteResponseDto responseDto = new ClienteResponseDto("00000001", "Carlos Fernández", "10948075", true);
+        when(clienteService.crearCliente(requestDto)).thenReturn(responseDto);
+        when(idempotenciaService.ejecutar(eq("clave-1"), eq(requestDto), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<String>>>getArgument(2).get());
+
         // Act
-        ResponseEntity<String> response = clienteController.createCliente(requestDto);
+        ResponseEntity<String> response = clienteController.createCliente("clave-1", requestDto);
 
         // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals("La identificación ya está en uso.", response.getBody());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("Cliente creado exitosamente con ID: 00000001", response.getBody());
+        verify(idempotenciaService, times(1)).ejecutar(eq("clave-1"), eq(requestDto), any());
     }
 
     @Test
@@ -125,12 +198,10 @@ public class ClienteControllerTest {
                 "contrasena123", true);
         when(clienteService.editarCliente(clienteId, requestDto)).thenThrow(new IdentificacionDuplicadaException("La identificación ya está en uso."));
 
-        // Act
-        ResponseEntity<String> response = clienteController.updateCliente(clienteId, requestDto);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals("La identificación ya está en uso.", response.getBody());
+        // Act & Assert
+        IdentificacionDuplicadaException exception = assertThrows(IdentificacionDuplicadaException.class,
+                () -> clienteController.updateCliente(clienteId, requestDto));
+        assertEquals("La identificación ya está en uso.", exception.getMessage());
     }
 
     @Test
@@ -142,12 +213,10 @@ public class ClienteControllerTest {
                 "contrasena123", true);
         when(clienteService.editarCliente(clienteId, requestDto)).thenThrow(new ResourceNotFoundException("Cliente no encontrado con el ID: " + clienteId));
 
-        // Act
-        ResponseEntity<String> response = clienteController.updateCliente(clienteId, requestDto);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals("Cliente no encontrado con el ID: " + clienteId, response.getBody());
+        // Act & Assert
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> clienteController.updateCliente(clienteId, requestDto));
+        assertEquals("Cliente no encontrado con el ID: " + clienteId, exception.getMessage());
     }
 
     @Test
@@ -170,11 +239,28 @@ public class ClienteControllerTest {
         Long clienteId = 1L;
         doThrow(new ResourceNotFoundException("Cliente no encontrado con el ID: " + clienteId)).when(clienteService).eliminarCliente(clienteId);
 
-        // Act
-        ResponseEntity<String> response = clienteController.deleteCliente(clienteId);
+        // Act & Assert
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> clienteController.deleteCliente(clienteId));
+        assertEquals("Cliente no encontrado con el ID: " + clienteId, exception.getMessage());
+    }
 
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals("Cliente no encontrado con el ID: " + clienteId, response.getBody());
+    @Test
+    public void testImportarClientes_EnCurso() {
+        // Arrange
+        when(importacionClientesService.iniciarImportacion("clientes.csv"))
+                .thenThrow(new ConflictoException("Ya hay una importación en curso para el archivo: clientes.csv"));
+
+        // Act & Assert
+        assertThrows(ConflictoException.class, () -> clienteController.importarClientes("clientes.csv"));
+    }
+
+    @Test
+    public void testRebalancearShards_EnCurso() {
+        // Arrange
+        doThrow(new ConflictoException("Ya hay un rebalanceo de shards en curso.")).when(rebalanceoShardsService).iniciar();
+
+        // Act & Assert
+        assertThrows(ConflictoException.class, () -> clienteController.rebalancearShards());
     }
 }
@@ -0,0 +1,127 @@
+package com.example.clientePersona.controller;
+
+import com.example.clientePersona.config.ContentNegotiationConfig;
+import com.example.clientePersona.filter.LimiteConcurrenciaFilter;
+import com.example.clientePersona.service.ClienteService;
+import com.example.clientePersona.service.EstadisticasClientesService;
+import com.example.clientePersona.service.IdempotenciaService;
+import com.example.clientePersona.service.ImportacionClientesService;
+import com.example.clientePersona.service.RebalanceoShardsService;
+import com.example.common.dto.response.ClienteResponseDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de la negociación de contenido del listado de clientes a través de Spring MVC.
+ */
+@WebMvcTest(controllers = ClienteController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = LimiteConcurrenciaFilter.class))
+@Import(ContentNegotiationConfig.class)
+public class ClienteControllerWebTest {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ClienteService clienteService;
+
+    @MockBean
+    private ImportacionClientesService importacionClientesService;
+
+    @MockBean
+    private IdempotenciaService idempotenciaService;
+
+    @MockBean
+    private EstadisticasClientesService estadisticasClientesService;
+
+    @MockBean
+    private RebalanceoShardsService rebalanceoShardsService;
+
+    @BeforeEach
+    public void setUp() {
+        when(clienteService.getAllClientes()).thenReturn(List.of(
+                new ClienteResponseDto("00000001", "Carlos Fernández", "10948075", true)));
+    }
+
+    @Test
+    public void testGetAllClientes_PorDefectoEnJson() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/clientes").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].clienteId").value("00000001"));
+    }
+
+    @Test
+    public void testGetAllClientes_EnCbor() throws Exception {
+        // Act
+        MvcResult resultado = mockMvc.perform(get("/clientes").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Assert
+        assertPrimerCliente(leer(resultado, new CBORFactory()));
+    }
+
+    @Test
+    public void testGetAllClientes_EnSmile() throws Exception {
+        // Act
+        MvcResult resultado = mockMvc.perform(get("/clientes").accept(APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_SMILE))
+                .andReturn();
+
+        // Assert
+        assertPrimerCliente(leer(resultado, new SmileFactory()));
+    }
+
+    @Test
+    public void testGetAllClientes_EnJsonColumnar() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/clientes").accept(ContentNegotiationConfig.APPLICATION_CLIENTES_COLUMNAR_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ContentNegotiationConfig.APPLICATION_CLIENTES_COLUMNAR_JSON))
+                .andExpect(jsonPath("$.columnas[0]").value("clienteId"))
+                .andExpect(jsonPath("$.columnas[1]").value("nombre"))
+                .andExpect(jsonPath("$.filas[0][0]").value("00000001"))
+                .andExpect(jsonPath("$.filas[0][1]").value("Carlos Fernández"))
+                .andExpect(jsonPath("$.filas[0][3]").value(true));
+    }
+
+    private static JsonNode leer(MvcResult resultado, JsonFactory formato) throws Exception {
+        return new ObjectMapper(formato).readTree(resultado.getResponse().getContentAsByteArray());
+    }
+
+    private static void assertPrimerCliente(JsonNode clientes) {
+        assertEquals(1, clientes.size());
+        assertEquals("00000001", clientes.get(0).get("clienteId").asText());
+        assertEquals("Carlos Fernández", clientes.get(0).get("nombre").asText());
+        assertEquals("10948075", clientes.get(0).get("identificacion").asText());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.clientePersona.exception;
+
+import com.example.clientePersona.controller.ClienteController;
+import com.example.common.dto.request.ClienteRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @BeforeEach
+    public void setUp() {
+        globalExceptionHandler = new GlobalExceptionHandler();
+    }
+
+    @Test
+    public void testResourceNotFound() {
+        // Act
+        ProblemDetail problema = globalExceptionHandler.handleResourceNotFoundException(
+                new ResourceNotFoundException("Cliente no encontrado con el ID: 1"));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND.value(), problema.getStatus());
+        assertEquals(GlobalExceptionHandler.TIPO_NO_ENCONTRADO, problema.getType());
+        assertEquals("Recurso no encontrado", problema.getTitle());
+        assertEquals("Cliente no encontrado con el ID: 1", problema.getDetail());
+    }
+
+    @Test
+    public void testIdentificacionDuplicada() {
+        // Act
+        ProblemDetail problema = globalExceptionHandler.handleIdentificacionDuplicadaException(
+                new IdentificacionDuplicadaException("La identificación ya está en uso."));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST.value(), problema.getStatus());
+        assertEquals(GlobalExceptionHandler.TIPO_IDENTIFICACION_DUPLICADA, problema.getType());
+        assertEquals("La identificación ya está en uso.", problema.getDetail());
+    }
+
+    @Test
+    public void testDatosNoValidos() {
+        // Act
+        ProblemDetail problema = globalExceptionHandler.handleDatosNoValidosException(
+                new DatosNoValidosException("La secuencia no puede ser negativa."));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST.value(), problema.getStatus());
+        assertEquals(GlobalExceptionHandler.TIPO_DATOS_NO_VALIDOS, problema.getType());
+        assertEquals("La secuencia no puede ser negativa.", problema.getDetail());
+    }
+
+    @Test
+    public void testConflicto() {
+        // Act
+        ProblemDetail problema = globalExceptionHandler.handleConflictoException(
+                new ConflictoException("Ya hay un rebalanceo de shards en curso."));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT.value(), problema.getStatus());
+        assertEquals(GlobalExceptionHandler.TIPO_CONFLICTO, problema.getType());
+        assertEquals("Ya hay un rebalanceo de shards en curso.", problema.getDetail());
+    }
+
+    @Test
+    public void testClaveIdempotenciaReutilizada() {
+        // Act
+        ProblemDetail problema = globalExceptionHandler.handleClaveIdempotenciaReutilizadaException(
+                new ClaveIdempotenciaReutilizadaException("La Idempotency-Key ya se utilizó con una solicitud distinta."));
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), problema.getStatus());
+        assertEquals(GlobalExceptionHandler.TIPO_IDEMPOTENCIA, problema.getType());
+    }
+
+    @Test
+    public void testValidacion() throws Exception {
+        // Arrange
+        MethodParameter parametro = new MethodParameter(
+                ClienteController.class.getMethod("updateCliente", Long.class, ClienteRequestDto.class), 1);
+        BeanPropertyBindingResult resultado = new BeanPropertyBindingResult(new Object(), "clienteRequestDto");
+        resultado.addError(new FieldError("clienteRequestDto", "nombre", "El nombre es obligatorio"));
+
+        // Act
+        ResponseEntity<Object> respuesta = globalExceptionHandler.handleMethodArgumentNotValid(
+                new MethodArgumentNotValidException(parametro, resultado), new HttpHeaders(), HttpStatus.BAD_REQUEST,
+                new ServletWebRequest(new MockHttpServletRequest()));
+
+        // Assert
+        assertNotNull(respuesta);
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+        ProblemDetail problema = (ProblemDetail) respuesta.getBody();
+        assertNotNull(problema);
+        assertEquals(GlobalExceptionHandler.TIPO_DATOS_NO_VALIDOS, problema.getType());
+        assertNotNull(problema.getProperties());
+        assertEquals(Map.of("nombre", "El nombre es obligatorio"), problema.getProperties().get("errores"));
+    }
+
+    @Test
+    public void testExcepcionesDeDominioSinTraza() {
+        // Assert
+        assertEquals(0, new ResourceNotFoundException("no encontrado").getStackTrace().length);
+        assertEquals(0, new IdentificacionDuplicadaException("duplicada").getStackTrace().length);
+        assertEquals(0, new ConflictoException("conflicto").getStackTrace().length);
+        assertEquals(0, new DatosNoValidosException("no válidos").getStackTrace().length);
+    }
+}
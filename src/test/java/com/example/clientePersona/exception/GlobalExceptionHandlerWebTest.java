@@ -0,0 +1,70 @@
+package com.example.clientePersona.exception;
+
+import com.example.clientePersona.filter.LimiteConcurrenciaFilter;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba a través de Spring MVC que las validaciones llegan a {@link GlobalExceptionHandler} aunque esté activo
+ * el manejador de problem details de Spring Boot.
+ */
+@WebMvcTest(controllers = GlobalExceptionHandlerWebTest.ControladorValidado.class,
+        properties = "spring.mvc.problemdetails.enabled=true",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = LimiteConcurrenciaFilter.class))
+@Import(GlobalExceptionHandlerWebTest.ControladorValidado.class)
+public class GlobalExceptionHandlerWebTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testValidacion_RespondeConLosCamposConError() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/validado")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value(GlobalExceptionHandler.TIPO_DATOS_NO_VALIDOS.toString()))
+                .andExpect(jsonPath("$.errores.nombre").value("El nombre es obligatorio"));
+    }
+
+    @Test
+    public void testCuerpoIlegible_RespondeConProblemDetails() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/validado")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    record Solicitud(@NotBlank(message = "El nombre es obligatorio") String nombre) {
+    }
+
+    @RestController
+    static class ControladorValidado {
+
+        @PostMapping("/validado")
+        public Solicitud validar(@Valid @RequestBody Solicitud solicitud) {
+            return solicitud;
+        }
+    }
+}
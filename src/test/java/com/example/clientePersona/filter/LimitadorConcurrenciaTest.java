@@ -0,0 +1,61 @@
+package com.example.clientePersona.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorConcurrenciaTest {
+
+    private static final long LATENCIA_OBJETIVO = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testRechazaPorEncimaDelLimite() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(2, 1, 10, LATENCIA_OBJETIVO);
+
+        assertTrue(limitador.intentarAdquirir());
+        assertTrue(limitador.intentarAdquirir());
+        assertFalse(limitador.intentarAdquirir());
+
+        assertEquals(2, limitador.getEnVuelo());
+        assertEquals(1, limitador.getRechazos());
+    }
+
+    @Test
+    public void testReduceElLimiteConLatenciaAlta() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(10, 1, 10, LATENCIA_OBJETIVO);
+
+        assertTrue(limitador.intentarAdquirir());
+        limitador.liberar(LATENCIA_OBJETIVO * 2);
+
+        assertEquals(9, limitador.getLimite());
+        assertEquals(0, limitador.getEnVuelo());
+    }
+
+    @Test
+    public void testIncrementaElLimiteConLatenciaBajaYUsoAlto() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(2, 1, 10, LATENCIA_OBJETIVO);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(limitador.intentarAdquirir());
+            assertTrue(limitador.intentarAdquirir());
+            limitador.liberar(LATENCIA_OBJETIVO / 2);
+            limitador.liberar(LATENCIA_OBJETIVO / 2);
+        }
+
+        assertEquals(3, limitador.getLimite());
+    }
+
+    @Test
+    public void testNoIncrementaSiElLimiteNoSeUsa() {
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(10, 1, 20, LATENCIA_OBJETIVO);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limitador.intentarAdquirir());
+            limitador.liberar(LATENCIA_OBJETIVO / 2);
+        }
+
+        assertEquals(10, limitador.getLimite());
+    }
+}
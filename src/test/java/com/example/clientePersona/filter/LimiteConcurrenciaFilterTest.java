@@ -0,0 +1,114 @@
+package com.example.clientePersona.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimiteConcurrenciaFilterTest {
+
+    private static final long LATENCIA_OBJETIVO = TimeUnit.SECONDS.toNanos(1);
+
+    private LimitadorConcurrencia limitadorEscrituras;
+    private LimitadorConcurrencia limitadorLecturas;
+    private LimitadorConcurrencia limitadorListados;
+    private LimiteConcurrenciaFilter filtro;
+
+    @BeforeEach
+    public void setUp() {
+        limitadorEscrituras = new LimitadorConcurrencia(1, 1, 1, LATENCIA_OBJETIVO);
+        limitadorLecturas = new LimitadorConcurrencia(1, 1, 1, LATENCIA_OBJETIVO);
+        limitadorListados = new LimitadorConcurrencia(1, 1, 1, LATENCIA_OBJETIVO);
+        filtro = new LimiteConcurrenciaFilter(limitadorEscrituras, limitadorLecturas, limitadorListados);
+    }
+
+    @Test
+    public void testRechazaConRetryAfterAlSuperarElLimite() throws Exception {
+        // Arrange
+        assertTrue(limitadorLecturas.intentarAdquirir());
+        MockFilterChain cadena = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = filtrar("GET", "/clientes/1", cadena);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(cadena.getRequest());
+        assertEquals(1, limitadorLecturas.getRechazos());
+    }
+
+    @Test
+    public void testLiberaElLugarAlTerminar() throws Exception {
+        // Arrange
+        MockFilterChain cadena = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = filtrar("PUT", "/clientes/1", cadena);
+
+        // Assert
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertNotNull(cadena.getRequest());
+        assertEquals(0, limitadorEscrituras.getEnVuelo());
+    }
+
+    @Test
+    public void testElListadoTieneSuPropioLimite() throws Exception {
+        // Arrange
+        assertTrue(limitadorListados.intentarAdquirir());
+
+        // Act
+        MockHttpServletResponse listado = filtrar("GET", "/clientes", new MockFilterChain());
+        MockHttpServletResponse consulta = filtrar("GET", "/clientes/1", new MockFilterChain());
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), listado.getStatus());
+        assertEquals(HttpStatus.OK.value(), consulta.getStatus());
+        assertEquals(0, limitadorLecturas.getRechazos());
+    }
+
+    @Test
+    public void testNoFiltraOtrasRutas() throws Exception {
+        // Arrange
+        assertTrue(limitadorLecturas.intentarAdquirir());
+        assertTrue(limitadorListados.intentarAdquirir());
+
+        // Act
+        MockHttpServletResponse parecida = filtrar("GET", "/clientesX", new MockFilterChain());
+        MockHttpServletResponse actuator = filtrar("GET", "/actuator/health", new MockFilterChain());
+
+        // Assert
+        assertEquals(HttpStatus.OK.value(), parecida.getStatus());
+        assertEquals(HttpStatus.OK.value(), actuator.getStatus());
+        assertEquals(0, limitadorLecturas.getRechazos());
+        assertEquals(0, limitadorListados.getRechazos());
+    }
+
+    @Test
+    public void testRespetaElContextPath() throws Exception {
+        // Arrange
+        assertTrue(limitadorListados.intentarAdquirir());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/clientes");
+        request.setContextPath("/api");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filtro.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+    }
+
+    private MockHttpServletResponse filtrar(String metodo, String uri, MockFilterChain cadena) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest(metodo, uri), response, cadena);
+        return response;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.config.ShardingProperties;
+import com.example.clientePersona.entity.Cliente;
+import com.example.clientePersona.repository.ClienteArchivadoRepository;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ArchivoClientesServiceTest {
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private ClienteArchivadoRepository clienteArchivadoRepository;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ArchivoClientesService archivoClientesService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        archivoClientesService = new ArchivoClientesService(clienteRepository, clienteArchivadoRepository, jdbcTemplate,
+                new TransactionTemplate(transactionManager), new ShardRouter(new ShardingProperties()), Duration.ofDays(180), 2);
+    }
+
+    @Test
+    public void testArchivarInactivos_ProcesaLotesHastaAgotarCandidatos() {
+        // Arrange
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM personas"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        // Act
+        int archivados = archivoClientesService.archivarInactivos();
+
+        // Assert
+        assertEquals(3, archivados);
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO personas_archivo"), any(SqlParameterSource.class));
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM personas WHERE"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    public void testRestaurar_DevuelveElClienteALaTablaCaliente() {
+        // Arrange
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM personas_archivo"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L));
+        when(jdbcTemplate.update(startsWith("INSERT INTO personas ("), any(SqlParameterSource.class))).thenReturn(1);
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+
+        // Act
+        Optional<Cliente> restaurado = archivoClientesService.restaurar(1L);
+
+        // Assert
+        assertTrue(restaurado.isPresent());
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE FROM personas_archivo"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    public void testRestaurar_YaRestauradoPorOtraTransaccion() {
+        // Arrange
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM personas_archivo"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+        when(clienteRepository.buscarPorIdParaModificar(1L)).thenReturn(Optional.of(cliente));
+
+        // Act
+        Optional<Cliente> restaurado = archivoClientesService.restaurar(1L);
+
+        // Assert
+        assertTrue(restaurado.isPresent());
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO personas ("), any(SqlParameterSource.class));
+    }
+
+    @Test
+    public void testRestaurar_ClienteNoArchivado() {
+        // Arrange
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM personas_archivo"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+        when(clienteRepository.buscarPorIdParaModificar(1L)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<Cliente> restaurado = archivoClientesService.restaurar(1L);
+
+        // Assert
+        assertTrue(restaurado.isEmpty());
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO personas ("), any(SqlParameterSource.class));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM personas_archivo"), any(SqlParameterSource.class));
+        verify(clienteRepository, never()).findById(anyLong());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.CambioCliente;
+import com.example.clientePersona.entity.TipoCambio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditoriaClientesServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testRegistrar_EscribeEventosDeFormatoFijo() throws Exception {
+        // Arrange
+        AuditoriaClientesService auditoria = new AuditoriaClientesService(directorio.toString(), 8,
+                DataSize.ofMegabytes(1), Duration.ofMillis(10), new SimpleMeterRegistry());
+        Instant instante = Instant.ofEpochMilli(1_700_000_000_000L);
+        auditoria.iniciar();
+
+        // Act
+        auditoria.registrar(new CambioCliente(1L, TipoCambio.CREADO, 7L, "00000042", "Carlos Fernández", "10948075", true, instante));
+        auditoria.registrar(new CambioCliente(2L, TipoCambio.ELIMINADO, 7L, "00000042", null, null, null, instante));
+        auditoria.detener();
+
+        // Assert
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado.toList();
+        }
+        assertEquals(1, archivos.size());
+        ByteBuffer eventos = ByteBuffer.wrap(Files.readAllBytes(archivos.get(0)));
+        assertEquals(2 * AuditoriaClientesService.TAMANO_REGISTRO, eventos.remaining());
+        assertEquals(instante.toEpochMilli(), eventos.getLong());
+        assertEquals(7L, eventos.getLong());
+        assertEquals(42L, eventos.getLong());
+        assertEquals(TipoCambio.CREADO.ordinal(), eventos.get());
+        assertEquals(1, eventos.get());
+        eventos.position(AuditoriaClientesService.TAMANO_REGISTRO + 3 * Long.BYTES);
+        assertEquals(TipoCambio.ELIMINADO.ordinal(), eventos.get());
+        assertEquals(2, eventos.get());
+    }
+
+    @Test
+    public void testRegistrarVarios_PublicaCadaCambioAlConfirmar() throws Exception {
+        // Arrange
+        AuditoriaClientesService auditoria = new AuditoriaClientesService(directorio.toString(), 8,
+                DataSize.ofMegabytes(1), Duration.ofMillis(10), new SimpleMeterRegistry());
+        Instant instante = Instant.ofEpochMilli(1_700_000_000_000L);
+        auditoria.iniciar();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        List<TransactionSynchronization> sincronizaciones;
+        try {
+            auditoria.registrar(List.of(
+                    new CambioCliente(null, TipoCambio.CREADO, 7L, "00000042", "Carlos Fernández", "10948075", true, instante),
+                    new CambioCliente(null, TipoCambio.CREADO, 8L, "00000043", "Lucía Pérez", "30948075", false, instante)));
+            sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+            sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        auditoria.detener();
+
+        // Assert
+        assertEquals(1, sincronizaciones.size());
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado.toList();
+        }
+        ByteBuffer eventos = ByteBuffer.wrap(Files.readAllBytes(archivos.get(0)));
+        assertEquals(2 * AuditoriaClientesService.TAMANO_REGISTRO, eventos.remaining());
+        assertEquals(7L, eventos.getLong(Long.BYTES));
+        assertEquals(8L, eventos.getLong(AuditoriaClientesService.TAMANO_REGISTRO + Long.BYTES));
+    }
+
+    @Test
+    public void testPublicar_BufferLlenoCuentaDescartesSinBloquear() {
+        // Arrange
+        BufferAuditoria buffer = new BufferAuditoria(2);
+
+        // Act
+        boolean primero = buffer.publicar((byte) 0, 1L, 1L, 1L, (byte) 1);
+        boolean segundo = buffer.publicar((byte) 0, 2L, 2L, 2L, (byte) 1);
+        boolean tercero = buffer.publicar((byte) 0, 3L, 3L, 3L, (byte) 1);
+        long[] leidos = new long[2];
+        int entregados = buffer.drenar((tipo, instante, personaId, clienteId, estado) -> leidos[(int) personaId - 1] = instante, 10);
+
+        // Assert
+        assertTrue(primero);
+        assertTrue(segundo);
+        assertFalse(tercero);
+        assertEquals(1, buffer.getDescartados());
+        assertEquals(2, entregados);
+        assertArrayEquals(new long[]{1L, 2L}, leidos);
+        assertTrue(buffer.publicar((byte) 0, 4L, 4L, 4L, (byte) 1));
+    }
+}
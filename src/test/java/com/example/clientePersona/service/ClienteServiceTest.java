@@ -1,23 +1,40 @@
 package com.example.clientePersona.service;
 
+import com.example.clientePersona.config.ShardingProperties;
+import com.example.clientePersona.entity.CambioCliente;
 import com.example.clientePersona.entity.Cliente;
+import com.example.clientePersona.entity.ClienteArchivado;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.exception.DatosNoValidosException;
 import com.example.clientePersona.exception.IdentificacionDuplicadaException;
 import com.example.clientePersona.exception.ResourceNotFoundException;
+import com.example.clientePersona.repository.CambioClienteRepository;
 import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.response.CambioClienteResponse;
+import com.example.clientePersona.sharding.ShardRouter;
 import com.example.common.dto.request.ClienteRequestDto;
 import com.example.common.dto.response.ClienteResponseDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class ClienteServiceTest {
@@ -28,6 +45,24 @@ public class ClienteServiceTest {
     @Mock
     private ClienteRepository clienteRepository;
 
+    @Mock
+    private CambioClienteRepository cambioClienteRepository;
+
+    @Mock
+    private EstadisticasClientesService estadisticasClientesService;
+
+    @Mock
+    private ArchivoClientesService archivoClientesService;
+
+    @Mock
+    private SnapshotClientesService snapshotClientesService;
+
+    @Mock
+    private AuditoriaClientesService auditoriaClientesService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -62,6 +97,7 @@ public class ClienteServiceTest {
         assertEquals("Carlos Fernández", responseDto.getNombre());
         assertEquals("10948075", responseDto.getIdentificacion());
         assertTrue(responseDto.getEstado());
+        verify(auditoriaClientesService).registrar(any(CambioCliente.class));
     }
 
     @Test
@@ -103,6 +139,21 @@ public class ClienteServiceTest {
         assertTrue(responseDto.getEstado());
     }
 
+    @Test
+    public void testObtenerClientePorId_DesdeSnapshot() {
+        // Arrange
+        Long clienteId = 1L;
+        when(snapshotClientesService.buscarPorId(clienteId))
+                .thenReturn(Optional.of(new ClienteResponseDto("00000001", "Carlos Fernández", "10948075", true)));
+
+        // Act
+        ClienteResponseDto responseDto = clienteService.obtenerClientePorId(clienteId);
+
+        // Assert
+        assertEquals("00000001", responseDto.getClienteId());
+        verifyNoInteractions(clienteRepository, archivoClientesService);
+    }
+
     @Test
     public void testObtenerClientePorId_NotFound() {
         // Arrange
@@ -129,7 +180,7 @@ public class ClienteServiceTest {
         cliente.setIdentificacion("10948075");
         cliente.setEstado(true);
 
-        when(clienteRepository.findById(clienteId)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.of(cliente));
         when(clienteRepository.existsByIdentificacion(anyString())).thenReturn(false);
 
         // Encriptar la nueva contraseña
@@ -156,7 +207,7 @@ public class ClienteServiceTest {
         ClienteRequestDto requestDto = new ClienteRequestDto("Carlos Fernández", "Masculino", 28, "10948075",
                 "Avenida Siempre Viva 742", "5556789",
                 "contrasena123", true);
-        when(clienteRepository.findById(clienteId)).thenReturn(Optional.empty());
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.empty());
 
         // Act & Assert
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -175,7 +226,7 @@ public class ClienteServiceTest {
         cliente.setIdentificacion("10948075");
         cliente.setEstado(true);
 
-        when(clienteRepository.findById(clienteId)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.of(cliente));
 
         // Act
         clienteService.eliminarCliente(clienteId);
@@ -188,7 +239,7 @@ public class ClienteServiceTest {
     public void testEliminarCliente_NotFound() {
         // Arrange
         Long clienteId = 1L;
-        when(clienteRepository.findById(clienteId)).thenReturn(Optional.empty());
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.empty());
 
         // Act & Assert
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -196,4 +247,193 @@ public class ClienteServiceTest {
         });
         assertEquals("Cliente no encontrado con el ID: " + clienteId, exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCrearCliente_RegistraCambio() {
+        // Arrange
+        ClienteRequestDto requestDto = new ClienteRequestDto("Carlos Fernández", "Masculino", 28, "10948075",
+                "Avenida Siempre Viva 742", "5556789",
+                "contrasena123", true);
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        cliente.setClienteId("00000001");
+        cliente.setNombre("Carlos Fernández");
+        cliente.setIdentificacion("10948075");
+        cliente.setEstado(true);
+
+        when(clienteRepository.existsByIdentificacion(anyString())).thenReturn(false);
+        when(clienteRepository.save(any(Cliente.class))).thenReturn(cliente);
+
+        // Act
+        clienteService.crearCliente(requestDto);
+
+        // Assert
+        ArgumentCaptor<CambioCliente> captor = ArgumentCaptor.forClass(CambioCliente.class);
+        InOrder orden = inOrder(cambioClienteRepository);
+        orden.verify(cambioClienteRepository).bloquearSecuencia();
+        orden.verify(cambioClienteRepository, times(1)).save(captor.capture());
+        assertEquals(TipoCambio.CREADO, captor.getValue().getTipo());
+        assertEquals(1L, captor.getValue().getPersonaId());
+        assertEquals("00000001", captor.getValue().getClienteId());
+        assertEquals("10948075", captor.getValue().getIdentificacion());
+    }
+
+    @Test
+    public void testEliminarCliente_RegistraTombstone() {
+        // Arrange
+        Long clienteId = 1L;
+        Cliente cliente = new Cliente();
+        cliente.setId(clienteId);
+        cliente.setClienteId("00000001");
+        cliente.setNombre("Carlos Fernández");
+        cliente.setIdentificacion("10948075");
+        cliente.setEstado(true);
+
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.of(cliente));
+
+        // Act
+        clienteService.eliminarCliente(clienteId);
+
+        // Assert
+        ArgumentCaptor<CambioCliente> captor = ArgumentCaptor.forClass(CambioCliente.class);
+        verify(cambioClienteRepository, times(1)).save(captor.capture());
+        assertEquals(TipoCambio.ELIMINADO, captor.getValue().getTipo());
+        assertEquals("00000001", captor.getValue().getClienteId());
+        assertNull(captor.getValue().getNombre());
+        assertNull(captor.getValue().getIdentificacion());
+    }
+
+    @Test
+    public void testObtenerCambiosDesde_AcotaLimite() {
+        // Arrange
+        CambioCliente cambio = new CambioCliente(6L, TipoCambio.MODIFICADO, 1L, "00000001",
+                "Carlos Fernández", "10948075", false, Instant.now());
+        when(cambioClienteRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(eq(5L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(cambio));
+
+        // Act
+        List<CambioClienteResponse> cambios = clienteService.obtenerCambiosDesde(5L, 50000, 0);
+
+        // Assert
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(cambioClienteRepository).findBySecuenciaGreaterThanOrderBySecuenciaAsc(eq(5L), captor.capture());
+        assertEquals(ClienteService.LIMITE_MAXIMO_CAMBIOS, captor.getValue().getPageSize());
+        assertEquals(1, cambios.size());
+        assertEquals(6L, cambios.get(0).getSecuencia());
+        assertEquals(TipoCambio.MODIFICADO, cambios.get(0).getTipo());
+        assertFalse(cambios.get(0).getEstado());
+    }
+
+    @Test
+    public void testObtenerCambiosDesde_SinShardUsaElUnico() {
+        // Act
+        clienteService.obtenerCambiosDesde(0L, 10, null);
+
+        // Assert
+        verify(cambioClienteRepository).findBySecuenciaGreaterThanOrderBySecuenciaAsc(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    public void testObtenerCambiosDesde_SecuenciaNegativa() {
+        // Act & Assert
+        assertThrows(DatosNoValidosException.class, () -> clienteService.obtenerCambiosDesde(-1L, 10, 0));
+    }
+
+    @Test
+    public void testObtenerCambiosDesde_ShardInexistente() {
+        // Act & Assert
+        assertThrows(DatosNoValidosException.class, () -> clienteService.obtenerCambiosDesde(0L, 10, 1));
+        verifyNoInteractions(cambioClienteRepository);
+    }
+
+    @Test
+    public void testObtenerClientePorId_DesdeArchivo() {
+        // Arrange
+        Long clienteId = 1L;
+        ClienteArchivado archivado = new ClienteArchivado();
+        archivado.setId(clienteId);
+        archivado.setClienteId("00000001");
+        archivado.setNombre("Carlos Fernández");
+        archivado.setIdentificacion("10948075");
+        archivado.setEstado(false);
+
+        when(clienteRepository.findById(clienteId)).thenReturn(Optional.empty());
+        when(archivoClientesService.buscarPorId(clienteId)).thenReturn(Optional.of(archivado));
+
+        // Act
+        ClienteResponseDto responseDto = clienteService.obtenerClientePorId(clienteId);
+
+        // Assert
+        assertEquals("00000001", responseDto.getClienteId());
+        assertFalse(responseDto.getEstado());
+        verify(archivoClientesService, never()).restaurar(anyLong());
+    }
+
+    @Test
+    public void testEditarCliente_ReactivaClienteArchivado() {
+        // Arrange
+        Long clienteId = 1L;
+        ClienteRequestDto requestDto = new ClienteRequestDto("Carlos Fernández", "Masculino", 28, "10948075",
+                "Avenida Siempre Viva 742", "5556789",
+                "contrasena123", true);
+        Cliente restaurado = new Cliente();
+        restaurado.setId(clienteId);
+        restaurado.setClienteId("00000001");
+        restaurado.setNombre("Carlos Fernández");
+        restaurado.setIdentificacion("10948075");
+        restaurado.setEstado(false);
+
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.empty());
+        when(archivoClientesService.restaurar(clienteId)).thenReturn(Optional.of(restaurado));
+        when(clienteRepository.save(any(Cliente.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ClienteResponseDto responseDto = clienteService.editarCliente(clienteId, requestDto);
+
+        // Assert
+        assertTrue(responseDto.getEstado());
+        verify(archivoClientesService, times(1)).restaurar(clienteId);
+        verify(clienteRepository, times(1)).save(restaurado);
+    }
+
+    @Test
+    public void testCrearCliente_IdentificacionArchivada() {
+        // Arrange
+        ClienteRequestDto requestDto = new ClienteRequestDto("Carlos Fernández", "Masculino", 28, "10948075",
+                "Avenida Siempre Viva 742", "5556789",
+                "contrasena123", true);
+        when(clienteRepository.existsByIdentificacion("10948075")).thenReturn(false);
+        when(archivoClientesService.identificacionArchivada("10948075")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IdentificacionDuplicadaException.class, () -> clienteService.crearCliente(requestDto));
+        verify(clienteRepository, never()).save(any(Cliente.class));
+    }
+
+    @Test
+    public void testEditarCliente_RegistraTransicionEnEstadisticas() {
+        // Arrange
+        Long clienteId = 1L;
+        ClienteRequestDto requestDto = new ClienteRequestDto("Carlos Fernández", "Masculino", 29, "10948075",
+                "Avenida Siempre Viva 742", "5556789",
+                "contrasena123", false);
+        Cliente cliente = new Cliente();
+        cliente.setClienteId("00000001");
+        cliente.setNombre("Carlos Fernández");
+        cliente.setGenero("Masculino");
+        cliente.setEdad(28);
+        cliente.setIdentificacion("10948075");
+        cliente.setEstado(true);
+
+        when(clienteRepository.buscarPorIdParaModificar(clienteId)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.save(any(Cliente.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        clienteService.editarCliente(clienteId, requestDto);
+
+        // Assert
+        verify(estadisticasClientesService).registrarModificacion(
+                new EstadisticasClientesService.Muestra(true, "Masculino", 28),
+                new EstadisticasClientesService.Muestra(false, "Masculino", 29));
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.repository.ClienteArchivadoRepository;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.repository.ResumenClientes;
+import com.example.clientePersona.response.EstadisticasClientesResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EstadisticasClientesServiceTest {
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private ClienteArchivadoRepository clienteArchivadoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EstadisticasClientesService estadisticasClientesService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        estadisticasClientesService = new EstadisticasClientesService(clienteRepository, clienteArchivadoRepository,
+                new TransactionTemplate(transactionManager), meterRegistry);
+    }
+
+    @Test
+    public void testCargar_ReconstruyeDesdeLaBaseDeDatos() {
+        // Arrange
+        when(clienteRepository.contarPorEstadoGeneroYEdad()).thenReturn(Stream.of(
+                resumen(true, "Masculino", 28, 3),
+                resumen(false, "Femenino", 95, 2),
+                resumen(true, null, 5, 1)));
+        when(clienteArchivadoRepository.contarPorEstadoGeneroYEdad()).thenReturn(Stream.of(
+                resumen(false, "Masculino", 61, 4)));
+
+        // Act
+        estadisticasClientesService.cargar();
+        EstadisticasClientesResponse estadisticas = estadisticasClientesService.obtenerEstadisticas();
+
+        // Assert
+        assertEquals(10, estadisticas.getTotal());
+        assertEquals(4, estadisticas.getActivos());
+        assertEquals(6, estadisticas.getInactivos());
+        assertEquals(7L, estadisticas.getPorGenero().get("Masculino"));
+        assertEquals(4L, estadisticas.getPorRangoEdad().get("60-69"));
+        assertEquals(2L, estadisticas.getPorGenero().get("Femenino"));
+        assertEquals(1L, estadisticas.getPorGenero().get(EstadisticasClientesService.GENERO_DESCONOCIDO));
+        assertEquals(3L, estadisticas.getPorRangoEdad().get("20-29"));
+        assertEquals(2L, estadisticas.getPorRangoEdad().get("90+"));
+        assertEquals(1L, estadisticas.getPorRangoEdad().get("0-9"));
+        assertEquals(0, estadisticas.getUltimaDesviacion());
+    }
+
+    @Test
+    public void testRegistrarCambios_ActualizaLosContadores() {
+        // Arrange
+        EstadisticasClientesService.Muestra alta = new EstadisticasClientesService.Muestra(true, "Femenino", 30);
+        EstadisticasClientesService.Muestra modificada = new EstadisticasClientesService.Muestra(false, "Femenino", 41);
+
+        // Act
+        estadisticasClientesService.registrarAlta(alta);
+        estadisticasClientesService.registrarModificacion(alta, modificada);
+        EstadisticasClientesResponse trasModificar = estadisticasClientesService.obtenerEstadisticas();
+        estadisticasClientesService.registrarBaja(modificada);
+        EstadisticasClientesResponse trasEliminar = estadisticasClientesService.obtenerEstadisticas();
+
+        // Assert
+        assertEquals(1, trasModificar.getTotal());
+        assertEquals(0, trasModificar.getActivos());
+        assertEquals(1, trasModificar.getInactivos());
+        assertEquals(0L, trasModificar.getPorRangoEdad().get("30-39"));
+        assertEquals(1L, trasModificar.getPorRangoEdad().get("40-49"));
+        assertEquals(0, trasEliminar.getTotal());
+        assertEquals(0L, trasEliminar.getPorGenero().get("Femenino"));
+    }
+
+    @Test
+    public void testReconciliar_CorrigeLaDesviacion() {
+        // Arrange
+        when(clienteRepository.contarPorEstadoGeneroYEdad())
+                .thenReturn(Stream.empty())
+                .thenReturn(Stream.of(resumen(true, "Masculino", 28, 1)));
+        estadisticasClientesService.cargar();
+        estadisticasClientesService.registrarAlta(new EstadisticasClientesService.Muestra(true, "Masculino", 28));
+        estadisticasClientesService.registrarAlta(new EstadisticasClientesService.Muestra(true, "Masculino", 28));
+
+        // Act
+        estadisticasClientesService.reconciliar();
+        EstadisticasClientesResponse estadisticas = estadisticasClientesService.obtenerEstadisticas();
+
+        // Assert
+        assertEquals(1, estadisticas.getTotal());
+        assertEquals(1, estadisticas.getActivos());
+        assertEquals(1L, estadisticas.getPorGenero().get("Masculino"));
+        assertEquals(3, estadisticas.getUltimaDesviacion());
+    }
+
+    @Test
+    public void testReconciliar_NoPierdeAltasConcurrentes() {
+        // Arrange
+        AtomicInteger consultas = new AtomicInteger();
+        when(clienteRepository.contarPorEstadoGeneroYEdad()).thenAnswer(invocation -> {
+            if (consultas.incrementAndGet() == 2) {
+                // Un alta se confirma en otro hilo mientras la consulta agregada lee el estado anterior.
+                CompletableFuture.runAsync(() -> estadisticasClientesService.registrarAlta(
+                        new EstadisticasClientesService.Muestra(true, "Femenino", 30))).join();
+                return Stream.of(resumen(true, "Masculino", 28, 1));
+            }
+            return consultas.get() == 1
+                    ? Stream.of(resumen(true, "Masculino", 28, 1))
+                    : Stream.of(resumen(true, "Masculino", 28, 1), resumen(true, "Femenino", 30, 1));
+        });
+        estadisticasClientesService.cargar();
+
+        // Act
+        estadisticasClientesService.reconciliar();
+        EstadisticasClientesResponse estadisticas = estadisticasClientesService.obtenerEstadisticas();
+
+        // Assert
+        assertEquals(3, consultas.get());
+        assertEquals(2, estadisticas.getTotal());
+        assertEquals(1L, estadisticas.getPorGenero().get("Femenino"));
+        assertEquals(0, estadisticas.getUltimaDesviacion());
+    }
+
+    @Test
+    public void testObtenerEstadisticas_SinCargarConsultaLaBaseDeDatos() {
+        // Arrange
+        when(clienteRepository.contarPorEstadoGeneroYEdad()).thenAnswer(invocation -> Stream.of(resumen(true, "Masculino", 28, 2)));
+        when(clienteArchivadoRepository.contarPorEstadoGeneroYEdad()).thenAnswer(invocation -> Stream.empty());
+
+        // Act
+        EstadisticasClientesResponse estadisticas = estadisticasClientesService.obtenerEstadisticas();
+
+        // Assert
+        assertEquals(2, estadisticas.getTotal());
+        assertEquals(2L, estadisticas.getPorGenero().get("Masculino"));
+        assertNull(estadisticas.getUltimaReconciliacion());
+    }
+
+    @Test
+    public void testReconciliar_CuentaLasPospuestas() {
+        // Arrange
+        when(clienteRepository.contarPorEstadoGeneroYEdad()).thenAnswer(invocation -> {
+            // Cada consulta se cruza con un alta confirmada en otro hilo.
+            CompletableFuture.runAsync(() -> estadisticasClientesService.registrarAlta(
+                    new EstadisticasClientesService.Muestra(true, "Femenino", 30))).join();
+            return Stream.empty();
+        });
+        when(clienteArchivadoRepository.contarPorEstadoGeneroYEdad()).thenAnswer(invocation -> Stream.empty());
+
+        // Act
+        estadisticasClientesService.reconciliar();
+        estadisticasClientesService.reconciliar();
+
+        // Assert
+        verify(clienteRepository, times(10)).contarPorEstadoGeneroYEdad();
+        assertEquals(2.0, meterRegistry.counter("clientes.estadisticas.reconciliaciones.pospuestas").count());
+    }
+
+    private ResumenClientes resumen(Boolean estado, String genero, int edad, long total) {
+        return new ResumenClientes() {
+            @Override
+            public Boolean getEstado() {
+                return estado;
+            }
+
+            @Override
+            public String getGenero() {
+                return genero;
+            }
+
+            @Override
+            public int getEdad() {
+                return edad;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
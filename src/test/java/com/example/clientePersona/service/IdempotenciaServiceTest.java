@@ -0,0 +1,153 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.exception.ClaveIdempotenciaReutilizadaException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotenciaServiceTest {
+
+    private IdempotenciaService idempotenciaService;
+
+    @BeforeEach
+    public void setUp() {
+        idempotenciaService = new IdempotenciaService(Duration.ofHours(1), 2, Duration.ofSeconds(5), new ObjectMapper());
+    }
+
+    @Test
+    public void testRepiteLaRespuestaSinEjecutarDeNuevo() {
+        // Arrange
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // Act
+        ResponseEntity<String> primera = idempotenciaService.ejecutar("clave", "solicitud", () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body("Cliente creado exitosamente con ID: 00000001");
+        });
+        ResponseEntity<String> repetida = idempotenciaService.ejecutar("clave", "solicitud", () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("La identificación ya está en uso.");
+        });
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+        assertEquals(HttpStatus.CREATED, primera.getStatusCode());
+        assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+        assertEquals(primera.getBody(), repetida.getBody());
+        assertEquals("true", repetida.getHeaders().getFirst(IdempotenciaService.CABECERA_REPETIDA));
+    }
+
+    @Test
+    public void testDuplicadoConcurrenteEsperaALaOriginal() throws Exception {
+        // Arrange
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CompletableFuture<ResponseEntity<String>> original = CompletableFuture.supplyAsync(() ->
+                idempotenciaService.ejecutar("clave", "solicitud", () -> {
+                    ejecuciones.incrementAndGet();
+                    enCurso.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.status(HttpStatus.CREATED).body("creado");
+                }));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> duplicado = CompletableFuture.supplyAsync(() ->
+                idempotenciaService.ejecutar("clave", "solicitud", () -> {
+                    ejecuciones.incrementAndGet();
+                    return ResponseEntity.ok("duplicado");
+                }));
+        liberar.countDown();
+
+        // Assert
+        assertEquals("creado", original.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("creado", duplicado.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    public void testLosErroresNoSeGuardan() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> idempotenciaService.ejecutar("clave", "solicitud", () -> {
+            throw new IllegalStateException("fallo");
+        }));
+        ResponseEntity<String> reintento = idempotenciaService.ejecutar("clave", "solicitud", () -> ResponseEntity.ok("ok"));
+
+        // Assert
+        assertEquals("ok", reintento.getBody());
+        assertNull(reintento.getHeaders().getFirst(IdempotenciaService.CABECERA_REPETIDA));
+    }
+
+    @Test
+    public void testDescartaLasEntradasMasAntiguas() {
+        // Act
+        idempotenciaService.ejecutar("a", "solicitud", () -> ResponseEntity.ok("a"));
+        idempotenciaService.ejecutar("b", "solicitud", () -> ResponseEntity.ok("b"));
+        idempotenciaService.ejecutar("c", "solicitud", () -> ResponseEntity.ok("c"));
+        ResponseEntity<String> respuesta = idempotenciaService.ejecutar("a", "solicitud", () -> ResponseEntity.ok("a2"));
+
+        // Assert
+        assertEquals("a2", respuesta.getBody());
+        assertTrue(idempotenciaService.getNumeroEntradas() <= 2);
+    }
+
+    @Test
+    public void testClaveReutilizadaConOtraSolicitud() {
+        // Arrange
+        idempotenciaService.ejecutar("clave", "solicitud", () -> ResponseEntity.status(HttpStatus.CREATED).body("creado"));
+
+        // Act & Assert
+        assertThrows(ClaveIdempotenciaReutilizadaException.class,
+                () -> idempotenciaService.ejecutar("clave", "otra solicitud", () -> ResponseEntity.ok("otro")));
+    }
+
+    @Test
+    public void testNoDescartaLasEntradasEnCurso() throws Exception {
+        // Arrange
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CompletableFuture<ResponseEntity<String>> original = CompletableFuture.supplyAsync(() ->
+                idempotenciaService.ejecutar("a", "solicitud", () -> {
+                    ejecuciones.incrementAndGet();
+                    enCurso.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok("a");
+                }));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        // Act
+        idempotenciaService.ejecutar("b", "solicitud", () -> ResponseEntity.ok("b"));
+        idempotenciaService.ejecutar("c", "solicitud", () -> ResponseEntity.ok("c"));
+        CompletableFuture<ResponseEntity<String>> duplicado = CompletableFuture.supplyAsync(() ->
+                idempotenciaService.ejecutar("a", "solicitud", () -> {
+                    ejecuciones.incrementAndGet();
+                    return ResponseEntity.ok("a2");
+                }));
+        liberar.countDown();
+
+        // Assert
+        assertEquals("a", original.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("a", duplicado.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, ejecuciones.get());
+    }
+}
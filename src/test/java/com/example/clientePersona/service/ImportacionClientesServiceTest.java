@@ -0,0 +1,180 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.config.ShardingProperties;
+import com.example.clientePersona.exception.DatosNoValidosException;
+import com.example.clientePersona.repository.CambioClienteRepository;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.response.EstadoImportacion;
+import com.example.clientePersona.response.ImportacionResponse;
+import com.example.clientePersona.sharding.ShardRouter;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ImportacionClientesServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private CambioClienteRepository cambioClienteRepository;
+
+    @Mock
+    private EstadisticasClientesService estadisticasClientesService;
+
+    @Mock
+    private ArchivoClientesService archivoClientesService;
+
+    @Mock
+    private SnapshotClientesService snapshotClientesService;
+
+    @Mock
+    private AuditoriaClientesService auditoriaClientesService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Validator validator;
+
+    private ImportacionClientesService importacionClientesService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+        ClienteService clienteService = new ClienteService(clienteRepository, cambioClienteRepository,
+                estadisticasClientesService, archivoClientesService, snapshotClientesService,
+                auditoriaClientesService, shardRouter);
+        importacionClientesService = new ImportacionClientesService(clienteService, estadisticasClientesService,
+                archivoClientesService, auditoriaClientesService, clienteRepository, jdbcTemplate, new TransactionTemplate(transactionManager),
+                shardRouter, validator, directorio.toString(), 2, 1, 2);
+        when(clienteRepository.findIdentificacionesExistentes(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).contains("444")
+                        ? List.of("444") : List.of());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        importacionClientesService.detener();
+    }
+
+    @Test
+    public void testImportarClientes_RegistraErroresYCheckpoint() throws IOException {
+        // Arrange
+        Path archivo = escribirCsv();
+
+        // Act
+        ImportacionClientesService.Progreso progreso = new ImportacionClientesService.Progreso("clientes.csv");
+        importacionClientesService.ejecutar(archivo, progreso);
+        ImportacionResponse response = progreso.aResponse();
+
+        // Assert
+        assertEquals(EstadoImportacion.COMPLETADA, response.getEstado());
+        assertEquals(5, response.getFilasLeidas());
+        assertEquals(1, response.getFilasImportadas());
+        assertEquals(4, response.getFilasConError());
+        assertEquals(5, response.getUltimaFilaConfirmada());
+        assertEquals("5", Files.readString(directorio.resolve("clientes.csv.checkpoint")));
+
+        List<String> errores = Files.readAllLines(directorio.resolve("clientes.csv.errores"));
+        assertEquals(4, errores.size());
+        assertTrue(errores.contains("2;La identificación ya está en uso."));
+        assertTrue(errores.contains("3;El nombre del cliente es obligatorio."));
+        assertTrue(errores.contains("4;La identificación ya está en uso."));
+        assertTrue(errores.contains("5;La edad no es un número válido."));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Object>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO personas"), captor.capture(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1, captor.getValue().size());
+        verify(estadisticasClientesService, times(1)).registrarAlta(any(EstadisticasClientesService.Muestra.class));
+        verify(auditoriaClientesService, times(1)).registrar(anyList());
+    }
+
+    @Test
+    public void testImportarClientes_ReanudaDesdeCheckpoint() throws IOException {
+        // Arrange
+        Path archivo = escribirCsv();
+        Files.writeString(directorio.resolve("clientes.csv.checkpoint"), "3");
+
+        // Act
+        ImportacionClientesService.Progreso progreso = new ImportacionClientesService.Progreso("clientes.csv");
+        importacionClientesService.ejecutar(archivo, progreso);
+        ImportacionResponse response = progreso.aResponse();
+
+        // Assert
+        assertEquals(EstadoImportacion.COMPLETADA, response.getEstado());
+        assertEquals(2, response.getFilasLeidas());
+        assertEquals(0, response.getFilasImportadas());
+        assertEquals(2, response.getFilasConError());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    public void testImportarClientes_FilaCortaYEstadoNoValidoSonErroresDeFila() throws IOException {
+        // Arrange
+        Path archivo = Files.writeString(directorio.resolve("extra.csv"), String.join("\n",
+                "codigo,nombre,genero,edad,identificacion,direccion,telefono,contrasena,estado,observaciones",
+                "A1,Carlos Fernández,Masculino,28,111,Calle 1,5556789,contrasena123,true,ninguna",
+                "A2,Marta Díaz,Femenino,35,555,Calle 2,5550001,contrasena123",
+                "A3,Luis Pérez,Masculino,40,666,Calle 3,5550003,contrasena123,si,ninguna"), StandardCharsets.UTF_8);
+
+        // Act
+        ImportacionClientesService.Progreso progreso = new ImportacionClientesService.Progreso("extra.csv");
+        importacionClientesService.ejecutar(archivo, progreso);
+        ImportacionResponse response = progreso.aResponse();
+
+        // Assert
+        assertEquals(EstadoImportacion.COMPLETADA, response.getEstado());
+        assertEquals(1, response.getFilasImportadas());
+        assertEquals(2, response.getFilasConError());
+        List<String> errores = Files.readAllLines(directorio.resolve("extra.csv.errores"));
+        assertTrue(errores.contains("2;La fila tiene 8 columnas y se esperaban 9."));
+        assertTrue(errores.contains("3;El estado debe ser true o false."));
+    }
+
+    @Test
+    public void testIniciarImportacion_NombreNoValido() {
+        // Act & Assert
+        assertThrows(DatosNoValidosException.class, () -> importacionClientesService.iniciarImportacion("../clientes.csv"));
+    }
+
+    private Path escribirCsv() throws IOException {
+        return Files.writeString(directorio.resolve("clientes.csv"), String.join("\n",
+                "nombre,genero,edad,identificacion,direccion,telefono,contrasena,estado",
+                "Carlos Fernández,Masculino,28,111,\"Avenida Siempre Viva 742, Lima\",5556789,contrasena123,true",
+                "Marta Díaz,Femenino,35,111,Calle 1,5550001,contrasena123,true",
+                ",Femenino,30,222,Calle 2,5550002,contrasena123,true",
+                "Luis Pérez,Masculino,40,444,Calle 3,5550003,contrasena123,false",
+                "Ana Ruiz,Femenino,abc,333,Calle 4,5550004,contrasena123,true"), StandardCharsets.UTF_8);
+    }
+}
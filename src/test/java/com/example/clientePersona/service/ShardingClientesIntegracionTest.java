@@ -0,0 +1,196 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.entity.Cliente;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.exception.DatosNoValidosException;
+import com.example.clientePersona.repository.ClienteRepository;
+import com.example.clientePersona.response.CambioClienteResponse;
+import com.example.clientePersona.sharding.ShardRouter;
+import com.example.common.dto.request.ClienteRequestDto;
+import com.example.common.dto.response.ClienteResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de extremo a extremo del sharding sobre los dos shards H2 del perfil de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ShardingClientesIntegracionTest {
+
+    private static final String INSERTAR_CLIENTE = "INSERT INTO personas (id, tipo_persona, nombre, genero, edad, "
+            + "identificacion, cliente_id, contraseña, estado, fecha_modificacion) "
+            + "VALUES (?, 'Cliente', ?, 'Femenino', 30, ?, ?, 'x', TRUE, CURRENT_TIMESTAMP)";
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RebalanceoShardsService rebalanceoShardsService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int siguienteIdentificacion = 10000000;
+
+    @BeforeEach
+    public void setUp() {
+        for (int shard = 0; shard < shardRouter.numeroShards(); shard++) {
+            shardRouter.enShard(shard, () -> {
+                jdbcTemplate.update("DELETE FROM personas");
+                jdbcTemplate.update("DELETE FROM personas_archivo");
+                jdbcTemplate.update("DELETE FROM cambios_clientes");
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void testCrearCliente_SeGuardaEnElShardDeSuIdentificacion() {
+        // Arrange
+        String identificacion = identificacionDelShard(1);
+
+        // Act
+        ClienteResponseDto creado = clienteService.crearCliente(solicitud("Ana Torres", identificacion));
+
+        // Assert
+        assertTrue(creado.getClienteId().startsWith("01"));
+        assertEquals(0, contarEn(0));
+        assertEquals(1, contarEn(1));
+        Cliente cliente = clienteRepository.findByClienteId(creado.getClienteId()).orElseThrow();
+        assertEquals(identificacion, cliente.getIdentificacion());
+        assertTrue(clienteRepository.existsById(cliente.getId()));
+        assertEquals(1, clienteRepository.count());
+        assertEquals(identificacion, clienteService.obtenerClientePorClienteId(creado.getClienteId()).getIdentificacion());
+    }
+
+    @Test
+    public void testEditarYEliminarCliente_EnSuShard() {
+        // Arrange
+        String identificacion = identificacionDelShard(1);
+        ClienteResponseDto creado = clienteService.crearCliente(solicitud("Ana Torres", identificacion));
+        Long id = clienteRepository.findByClienteId(creado.getClienteId()).orElseThrow().getId();
+
+        // Act
+        ClienteResponseDto editado = clienteService.editarCliente(id, solicitud("Ana Torres Ruiz", identificacion));
+        clienteService.eliminarCliente(id);
+
+        // Assert
+        assertEquals("Ana Torres Ruiz", editado.getNombre());
+        assertFalse(clienteRepository.existsById(id));
+        assertEquals(0, clienteRepository.count());
+        assertEquals(3, clienteService.obtenerCambiosDesde(0L, 10, 1).size());
+        assertTrue(clienteService.obtenerCambiosDesde(0L, 10, 0).isEmpty());
+        assertThrows(DatosNoValidosException.class, () -> clienteService.obtenerCambiosDesde(0L, 10, null));
+    }
+
+    @Test
+    public void testOperacionesDelRepositorio_UnenYReparten() {
+        // Arrange
+        List<Cliente> clientes = clienteRepository.saveAll(List.of(
+                cliente("Carla", identificacionDelShard(0)),
+                cliente("Bruno", identificacionDelShard(1)),
+                cliente("Alba", identificacionDelShard(1))));
+
+        // Act
+        Page<Cliente> pagina = clienteRepository.findAll(PageRequest.of(0, 2, Sort.by("nombre")));
+        List<Cliente> porId = clienteRepository.findAllById(clientes.stream().map(Cliente::getId).toList());
+        clienteRepository.deleteById(clientes.get(0).getId());
+
+        // Assert
+        assertEquals(2, contarEn(0) + contarEn(1));
+        assertEquals(3, pagina.getTotalElements());
+        assertEquals(List.of("Alba", "Bruno"), pagina.getContent().stream().map(Cliente::getNombre).toList());
+        assertEquals(3, porId.size());
+        assertEquals(2, clienteRepository.count());
+    }
+
+    @Test
+    public void testRebalancear_MueveAlShardDeLaIdentificacion() {
+        // Arrange
+        String identificacion = identificacionDelShard(1);
+        insertarEn(0, 1L, "Ana Torres", identificacion, "0012345678");
+
+        // Act
+        long movidos = rebalanceoShardsService.rebalancear();
+
+        // Assert
+        assertEquals(1, movidos);
+        assertEquals(0, contarEn(0));
+        assertEquals(1, contarEn(1));
+        List<CambioClienteResponse> bajas = clienteService.obtenerCambiosDesde(0L, 10, 0);
+        List<CambioClienteResponse> altas = clienteService.obtenerCambiosDesde(0L, 10, 1);
+        assertEquals(List.of(TipoCambio.ELIMINADO), bajas.stream().map(CambioClienteResponse::getTipo).toList());
+        assertEquals("0012345678", bajas.get(0).getClienteId());
+        assertEquals(List.of(TipoCambio.CREADO), altas.stream().map(CambioClienteResponse::getTipo).toList());
+        assertEquals(identificacion, altas.get(0).getIdentificacion());
+        assertTrue(bajas.get(0).getFechaCambio().isBefore(altas.get(0).getFechaCambio()));
+        assertEquals(identificacion, clienteRepository.findById(1L).orElseThrow().getIdentificacion());
+        assertEquals("Ana Torres Ruiz", clienteService.editarCliente(1L, solicitud("Ana Torres Ruiz", identificacion)).getNombre());
+    }
+
+    @Test
+    public void testRebalancear_NoEliminaSiElIdEsDeOtroCliente() {
+        // Arrange
+        insertarEn(0, 1L, "Ana Torres", identificacionDelShard(1), "0012345678");
+        insertarEn(1, 1L, "Luis Paredes", identificacionDelShard(1), "0187654321");
+
+        // Act
+        long movidos = rebalanceoShardsService.rebalancear();
+
+        // Assert
+        assertEquals(0, movidos);
+        assertEquals(1, contarEn(0));
+        assertEquals(1, contarEn(1));
+        assertTrue(clienteService.obtenerCambiosDesde(0L, 10, 0).isEmpty());
+        assertTrue(clienteService.obtenerCambiosDesde(0L, 10, 1).isEmpty());
+    }
+
+    private String identificacionDelShard(int shard) {
+        String identificacion;
+        do {
+            identificacion = String.valueOf(siguienteIdentificacion++);
+        } while (shardRouter.shardDeIdentificacion(identificacion) != shard);
+        return identificacion;
+    }
+
+    private static ClienteRequestDto solicitud(String nombre, String identificacion) {
+        return new ClienteRequestDto(nombre, "Femenino", 30, identificacion, "Calle Falsa 123", "5551234",
+                "contrasena123", true);
+    }
+
+    private static Cliente cliente(String nombre, String identificacion) {
+        Cliente cliente = new Cliente();
+        cliente.setNombre(nombre);
+        cliente.setEdad(30);
+        cliente.setIdentificacion(identificacion);
+        cliente.setContrasena("x");
+        cliente.setEstado(true);
+        return cliente;
+    }
+
+    private void insertarEn(int shard, Long id, String nombre, String identificacion, String clienteId) {
+        shardRouter.enShard(shard, () -> jdbcTemplate.update(INSERTAR_CLIENTE, id, nombre, identificacion, clienteId));
+    }
+
+    private int contarEn(int shard) {
+        return shardRouter.enShard(shard, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM personas", Integer.class));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.clientePersona.service;
+
+import com.example.clientePersona.config.ShardingProperties;
+import com.example.clientePersona.entity.CambioCliente;
+import com.example.clientePersona.entity.TipoCambio;
+import com.example.clientePersona.repository.CambioClienteRepository;
+import com.example.clientePersona.sharding.ShardRouter;
+import com.example.common.dto.response.ClienteResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SnapshotClientesServiceTest {
+
+    @Mock
+    private CambioClienteRepository cambioClienteRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo;
+    private SnapshotClientesService snapshotClientesService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        archivo = directorio.resolve("clientes.snap");
+        SnapshotClientes.escribir(archivo, List.of(
+                new SnapshotClientes.Registro(3L, "00000003", "Ana Torres", "20948075", null),
+                new SnapshotClientes.Registro(1L, "00000001", "Carlos Fernández", "10948075", true),
+                new SnapshotClientes.Registro(2L, "00000002", "Lucía Pérez", "30948075", false)), new long[]{5L});
+        snapshotClientesService = new SnapshotClientesService(cambioClienteRepository, jdbcTemplate,
+                new ShardRouter(new ShardingProperties()), archivo.toString(), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        snapshotClientesService.detener();
+    }
+
+    @Test
+    public void testMapear_BuscaPorIdYClienteId() throws Exception {
+        // Act
+        SnapshotClientes snapshot = SnapshotClientes.mapear(archivo);
+
+        // Assert
+        assertEquals(3, snapshot.numeroRegistros());
+        assertArrayEquals(new long[]{5L}, snapshot.secuencias());
+        assertEquals("Carlos Fernández", snapshot.buscarPorId(1L).orElseThrow().nombre());
+        assertNull(snapshot.buscarPorId(3L).orElseThrow().estado());
+        assertEquals(2L, snapshot.buscarPorClienteId("00000002").orElseThrow().id());
+        assertTrue(snapshot.buscarPorId(4L).isEmpty());
+        assertTrue(snapshot.buscarPorClienteId("00000004").isEmpty());
+    }
+
+    @Test
+    public void testReconciliar_AplicaLosCambiosPosterioresAlSnapshot() {
+        // Arrange
+        when(cambioClienteRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new CambioCliente(6L, TipoCambio.MODIFICADO, 1L, "00000001", "Carlos F.", "10948075", false, Instant.now()),
+                        new CambioCliente(7L, TipoCambio.ELIMINADO, 2L, "00000002", null, null, null, Instant.now())));
+
+        // Act
+        snapshotClientesService.inicializar();
+        snapshotClientesService.reconciliar();
+
+        // Assert
+        ClienteResponseDto modificado = snapshotClientesService.buscarPorId(1L).orElseThrow();
+        assertEquals("Carlos F.", modificado.getNombre());
+        assertFalse(modificado.getEstado());
+        assertTrue(snapshotClientesService.buscarPorId(2L).isEmpty());
+        assertTrue(snapshotClientesService.buscarPorClienteId("00000002").isEmpty());
+        assertEquals("Ana Torres", snapshotClientesService.buscarPorClienteId("00000003").orElseThrow().getNombre());
+    }
+
+    @Test
+    public void testBuscar_SinReconciliacionRecienteVaALaBaseDeDatos() {
+        // Arrange
+        SnapshotClientesService desactualizado = new SnapshotClientesService(cambioClienteRepository, jdbcTemplate,
+                new ShardRouter(new ShardingProperties()), archivo.toString(), Duration.ZERO);
+        desactualizado.inicializar();
+        desactualizado.reconciliar();
+
+        // Act
+        Optional<ClienteResponseDto> encontrado = desactualizado.buscarPorId(1L);
+
+        // Assert
+        assertTrue(encontrado.isEmpty());
+        assertTrue(desactualizado.buscarPorClienteId("00000001").isEmpty());
+        desactualizado.detener();
+    }
+
+    @Test
+    public void testGuardar_IncluyeLosCambiosEnElNuevoSnapshot() throws Exception {
+        // Arrange
+        snapshotClientesService.inicializar();
+        snapshotClientesService.reconciliar();
+        snapshotClientesService.registrar(
+                new CambioCliente(8L, TipoCambio.CREADO, 4L, "00000004", "Mario Ruiz", "40948075", true, Instant.now()));
+        snapshotClientesService.registrar(
+                new CambioCliente(9L, TipoCambio.ELIMINADO, 3L, "00000003", null, null, null, Instant.now()));
+
+        // Act
+        snapshotClientesService.guardar();
+
+        // Assert
+        SnapshotClientes snapshot = SnapshotClientes.mapear(archivo);
+        assertEquals(3, snapshot.numeroRegistros());
+        assertEquals("Mario Ruiz", snapshot.buscarPorClienteId("00000004").orElseThrow().nombre());
+        assertEquals(Optional.empty(), snapshot.buscarPorId(3L));
+        assertEquals("Lucía Pérez", snapshot.buscarPorClienteId("00000002").orElseThrow().nombre());
+        assertEquals("00000001", snapshot.buscarPorId(1L).orElseThrow().clienteId());
+        assertEquals("Mario Ruiz", snapshotClientesService.buscarPorId(4L).orElseThrow().getNombre());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.clientePersona.sharding;
+
+import com.example.clientePersona.config.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRouterTest {
+
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    public void setUp() {
+        ShardingProperties propiedades = new ShardingProperties();
+        for (int i = 0; i < 3; i++) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:shard" + i);
+            propiedades.getShards().add(shard);
+        }
+        shardRouter = new ShardRouter(propiedades);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        shardRouter.detener();
+    }
+
+    @Test
+    public void testShardDeId_DecodificaLaSerieDelShard() {
+        // Act & Assert
+        assertEquals(OptionalInt.of(0), shardRouter.shardDeId(1L));
+        assertEquals(OptionalInt.of(2), shardRouter.shardDeId(3L + ShardRouter.MAXIMO_SHARDS * 5L));
+        assertEquals(OptionalInt.empty(), shardRouter.shardDeId(10L));
+        assertEquals(OptionalInt.empty(), shardRouter.shardDeId(null));
+    }
+
+    @Test
+    public void testShardDeId_LosIdsAnterioresAlShardingNoTienenOrigen() {
+        // Arrange
+        shardRouter.registrarIdsAnteriores(100L);
+
+        // Act & Assert
+        assertEquals(OptionalInt.empty(), shardRouter.shardDeId(2L));
+        assertEquals(OptionalInt.empty(), shardRouter.shardDeId(100L));
+        assertEquals(OptionalInt.of(1), shardRouter.shardDeId(2L + ShardRouter.MAXIMO_SHARDS * 2L));
+    }
+
+    @Test
+    public void testGenerarClienteId_LlevaElPrefijoDelShard() {
+        // Act
+        String clienteId = shardRouter.generarClienteId(2);
+
+        // Assert
+        assertEquals(10, clienteId.length());
+        assertEquals(OptionalInt.of(2), shardRouter.shardDeClienteId(clienteId));
+        assertEquals(OptionalInt.empty(), shardRouter.shardDeClienteId("12345678"));
+    }
+
+    @Test
+    public void testShardDeIdentificacion_EsEstableYEstaEnRango() {
+        // Act
+        int shard = shardRouter.shardDeIdentificacion("10948075");
+
+        // Assert
+        assertEquals(shard, shardRouter.shardDeIdentificacion("10948075"));
+        assertTrue(shard >= 0 && shard < 3);
+    }
+
+    @Test
+    public void testEnTodos_EjecutaEnCadaShardConSuContexto() {
+        // Act
+        List<Integer> shards = shardRouter.enTodos(shard -> ContextoShard.actual());
+
+        // Assert
+        assertEquals(List.of(0, 1, 2), shards);
+        assertEquals(0, ContextoShard.actual());
+    }
+
+    @Test
+    public void testSinShards_NoSeHabilita() {
+        // Arrange
+        ShardRouter unico = new ShardRouter(new ShardingProperties());
+
+        // Act & Assert
+        assertFalse(unico.habilitado());
+        assertEquals(8, unico.generarClienteId(0).length());
+        assertEquals(List.of("0"), unico.enTodos(String::valueOf));
+    }
+}